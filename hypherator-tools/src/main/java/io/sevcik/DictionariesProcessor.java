@@ -11,6 +11,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,6 +25,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 public class DictionariesProcessor {
     private final String licenseDirectory;
     private final String hyphenDirectory;
+    private static final int LEXICON_SIZE = 10000;
     private static final List<String> nonCompatibleLocales = Arrays.asList("cs-CZ", "pt-PT", "eo", "ro-RO");
 
     private static boolean isCompatibleLocale(List<String> locales) {
@@ -383,13 +385,91 @@ public class DictionariesProcessor {
         }
     }
 
+    /**
+     * Writes the same data as {@link #saveHyphenDataToJson()} as a line-based manifest, which the runtime reads
+     * without JSON databinding. One dictionary per line, tab separated: locations, locales (each space separated)
+     * and the hyphen. Lines starting with {@code #} are comments.
+     */
+    private void saveHyphenDataToIndex() {
+        Path indexFile = Path.of(hyphenDirectory, "all.idx");
+        List<String> lines = new ArrayList<>();
+        lines.add("# Generated by DictionariesProcessor: locations<TAB>locales<TAB>hyphen");
+        for (HyphenData data : hyphenData) {
+            lines.add(String.join(" ", data.locations) + "\t" + String.join(" ", data.locales) + "\t" + (data.hyphen == null ? "" : data.hyphen));
+        }
+        try {
+            Files.write(indexFile, lines, StandardCharsets.UTF_8);
+            System.out.println("Saved hyphenation index to: " + indexFile);
+        } catch (IOException e) {
+            System.err.println("Error saving hyphenation index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the most frequent words of each dictionary's language next to the dictionary as {@code <name>.words},
+     * one word per line. The hypherator build precomputes their hyphenation into a lexicon shipped with the dictionary.
+     * <p>
+     * Frequency lists are looked up as {@code <frequencyDirectory>/<locale>.txt} for each locale of the dictionary.
+     * Every line holds a word, optionally followed by its count; lists without counts must be sorted by frequency.
+     */
+    void saveLexiconWordLists(String frequencyDirectory, int lexiconSize) {
+        if (!Files.isDirectory(Path.of(frequencyDirectory))) {
+            System.out.println("No frequency lists found in " + frequencyDirectory + ", skipping lexicons");
+            return;
+        }
+
+        for (HyphenData data : hyphenData) {
+            Path frequencyList = null;
+            for (String locale : data.locales) {
+                for (String name : List.of(locale, locale.replace("-", "_"))) {
+                    Path candidate = Path.of(frequencyDirectory, name + ".txt");
+                    if (frequencyList == null && Files.isRegularFile(candidate))
+                        frequencyList = candidate;
+                }
+            }
+            if (frequencyList == null)
+                continue;
+
+            String location = data.locations.get(0);
+            Path wordList = Path.of(hyphenDirectory, location.substring(0, location.lastIndexOf('.')) + ".words");
+            try {
+                Files.write(wordList, readMostFrequentWords(frequencyList, lexiconSize), StandardCharsets.UTF_8);
+                System.out.println("Saved lexicon words: " + wordList + " from " + frequencyList);
+            } catch (IOException e) {
+                System.err.println("Error saving lexicon words to " + wordList + ": " + e.getMessage());
+            }
+        }
+    }
+
+    static List<String> readMostFrequentWords(Path frequencyList, int count) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        boolean counted = true;
+        for (String line : Files.readAllLines(frequencyList, StandardCharsets.UTF_8)) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields[0].isEmpty())
+                continue;
+            counted &= fields.length > 1 && fields[1].matches("\\d+");
+            entries.add(fields);
+        }
+        if (counted) {
+            entries.sort(Comparator.comparingLong((String[] fields) -> Long.parseLong(fields[1])).reversed());
+        }
+
+        Set<String> words = new LinkedHashSet<>();
+        for (String[] fields : entries) {
+            if (words.size() >= count)
+                break;
+            words.add(fields[0]);
+        }
+        return new ArrayList<>(words);
+    }
 
     public static void main(String[] args) {
         System.out.println("Hypherator Dictionaries Processor");
         System.out.println("Current path: " + System.getProperty("user.dir"));
-        if (args.length != 3) {
-            args = List.of("dictionaries", "indic_dictionaries", "hypherator/src/main/resources/3pp_licenses", "hypherator/src/main/resources/hyphen").toArray(new String[0]);
-            //System.err.println("Usage: DictionariesProcessor <sourceDirectory> <licenseDirectory> <hyphenDirectory>");
+        if (args.length != 4 && args.length != 5) {
+            args = List.of("dictionaries", "indic_dictionaries", "hypherator/src/main/resources/3pp_licenses", "hypherator/src/main/resources/hyphen", "frequencies").toArray(new String[0]);
+            //System.err.println("Usage: DictionariesProcessor <sourceDirectory> <byLocaleDirectory> <licenseDirectory> <hyphenDirectory> [<frequencyDirectory>]");
             //System.exit(1);
         }
 
@@ -397,6 +477,7 @@ public class DictionariesProcessor {
         String byLocaleDirectory = args[1];
         String licenseDirectory = args[2];
         String hyphenDirectory = args[3];
+        String frequencyDirectory = args.length > 4 ? args[4] : null;
 
         // Create directories if they don't exist
         try {
@@ -411,6 +492,9 @@ public class DictionariesProcessor {
         processor.processDirectoryLibreOffice(loSourceDirectory);
         processor.processDirectoryLocaleSubdirs(byLocaleDirectory);
         processor.saveHyphenDataToJson();
+        processor.saveHyphenDataToIndex();
+        if (frequencyDirectory != null)
+            processor.saveLexiconWordLists(frequencyDirectory, LEXICON_SIZE);
 
     }
 }
@@ -0,0 +1,168 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, primitive container for the hyphenation points of one word.
+ * <p>
+ * Unlike the {@link PotentialBreak} lists returned by {@link Hyphenate#hyphenate(HyphenDict, String)},
+ * a {@code BreakSet} keeps positions and priorities in plain arrays and can be refilled for every word,
+ * so bulk callers hyphenate without allocating an object per break. Breaks are ordered by position.
+ * <br><br>
+ * Urgency follows {@link HyphenationIterator#setUrgency(int)}: a break is included at urgency {@code u}
+ * when its priority is at least {@code 10 - u}; urgency 9 includes every break.
+ * <br><br>
+ * Instances are not thread-safe.
+ */
+public final class BreakSet {
+    /**
+     * Urgency which includes all breaks.
+     */
+    public static final int MAX_URGENCY = 9;
+
+    private int size = 0;
+    private int[] positions;
+    private byte[] priorities;
+    private HyphenDict.BreakRule[] rules;
+
+    /**
+     * Creates an empty set.
+     */
+    public BreakSet() {
+        this(16);
+    }
+
+    BreakSet(int capacity) {
+        positions = new int[capacity];
+        priorities = new byte[capacity];
+        rules = new HyphenDict.BreakRule[capacity];
+    }
+
+    /**
+     * Returns the number of breaks, regardless of urgency.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of the {@code index}-th break, i.e. the number of characters in front of it.
+     */
+    public int position(int index) {
+        checkIndex(index);
+        return positions[index];
+    }
+
+    /**
+     * Returns the priority of the {@code index}-th break. Priorities are odd; higher values are better breaks.
+     */
+    public int priority(int index) {
+        checkIndex(index);
+        return priorities[index];
+    }
+
+    /**
+     * Returns {@code true} if applying the {@code index}-th break changes the characters around it
+     * (a non-standard hyphenation, e.g. "ck" to "k-k"). Such breaks should be applied through
+     * {@link #potentialBreak(int)} and {@link HyphenationIterator#applyBreak(PotentialBreak)}.
+     */
+    public boolean hasReplacement(int index) {
+        checkIndex(index);
+        return rules[index] != null && rules[index].replacement != null;
+    }
+
+    /**
+     * Returns the {@code index}-th break as an opaque {@link PotentialBreak} handle. A new handle is created on every call.
+     */
+    public PotentialBreak potentialBreak(int index) {
+        checkIndex(index);
+        return new PotentialBreakImpl(positions[index], priorities[index], rules[index]);
+    }
+
+    /**
+     * Returns the number of breaks included at the given urgency.
+     */
+    public int count(int urgency) {
+        int minimumPriority = minimumPriority(urgency);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (priorities[i] >= minimumPriority)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Copies the positions of the breaks included at the given urgency into {@code target}.
+     *
+     * @return the number of included breaks; positions beyond the length of {@code target} are not written
+     */
+    public int positions(int urgency, int[] target) {
+        int minimumPriority = minimumPriority(urgency);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (priorities[i] >= minimumPriority) {
+                if (count < target.length)
+                    target[count] = positions[i];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the breaks included at the given urgency as a bit mask: bit {@code p} is set if there is a break at position {@code p}.
+     *
+     * @throws IllegalStateException if an included break lies at position 64 or beyond
+     */
+    public long mask(int urgency) {
+        int minimumPriority = minimumPriority(urgency);
+        long mask = 0;
+        for (int i = 0; i < size; i++) {
+            if (priorities[i] >= minimumPriority) {
+                if (positions[i] >= Long.SIZE)
+                    throw new IllegalStateException("Break at position " + positions[i] + " does not fit into a mask");
+                mask |= 1L << positions[i];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Removes all breaks, keeping the allocated capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            rules[i] = null;
+        }
+        size = 0;
+    }
+
+    void add(int position, int priority, HyphenDict.BreakRule rule) {
+        if (size == positions.length) {
+            int capacity = Math.max(positions.length * 2, 8);
+            positions = Arrays.copyOf(positions, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            rules = Arrays.copyOf(rules, capacity);
+        }
+        positions[size] = position;
+        priorities[size] = (byte) priority;
+        rules[size] = rule;
+        size++;
+    }
+
+    HyphenDict.BreakRule breakRule(int index) {
+        return rules[index];
+    }
+
+    private static int minimumPriority(int urgency) {
+        return 10 - urgency;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+}
@@ -0,0 +1,59 @@
+package io.sevcik.hypherator;
+
+/**
+ * Reusable {@link CharSequence} view of a range of a {@code char[]}, so that words in caller buffers can be
+ * hyphenated without copying them into a string first. The view follows changes of the array.
+ */
+final class CharArrayWindow implements CharSequence {
+    private static final char[] EMPTY = new char[0];
+
+    private char[] text;
+    private int offset;
+    private int length;
+
+    CharArrayWindow() {
+        this(EMPTY, 0, 0);
+    }
+
+    CharArrayWindow(char[] text, int offset, int length) {
+        set(text, offset, length);
+    }
+
+    CharArrayWindow set(char[] text, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > text.length || offset + length < 0)
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") out of bounds for length " + text.length);
+        this.text = text;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    /**
+     * Releases the viewed array.
+     */
+    void clear() {
+        set(EMPTY, 0, 0);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        return text[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return new String(text, offset, length);
+    }
+}
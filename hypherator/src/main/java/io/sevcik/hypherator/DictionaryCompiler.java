@@ -0,0 +1,76 @@
+package io.sevcik.hypherator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Build-time tool that precompiles the dictionaries.
+ * <p>
+ * Every {@code <name>.dic} found in the source directory is parsed once and written as a {@link DictionaryImage}
+ * {@code <name>.dicb} to the same relative path in the output directory. If a {@code <name>.words} list of frequent
+ * words lies next to it (written by the dictionaries processor of hypherator-tools), the words are hyphenated and
+ * written as a {@link HyphenationLexicon} {@code <name>.lex}. {@link Hypherator} picks both up when it loads the
+ * dictionary. It runs as part of the hypherator build, because it needs the pattern engine.
+ * <p>
+ * Usage: {@code DictionaryCompiler <sourceDirectory> <outputDirectory>}
+ */
+public final class DictionaryCompiler {
+    private static final String DICTIONARY_EXTENSION = ".dic";
+
+    private DictionaryCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DictionaryCompiler <sourceDirectory> <outputDirectory>");
+            System.exit(1);
+        }
+
+        Path sourceDirectory = Path.of(args[0]);
+        Path outputDirectory = Path.of(args[1]);
+        if (!Files.isDirectory(sourceDirectory)) {
+            System.out.println("No dictionaries found in " + sourceDirectory + ", nothing to compile");
+            return;
+        }
+
+        List<Path> dictionaryFiles;
+        try (Stream<Path> paths = Files.walk(sourceDirectory)) {
+            dictionaryFiles = paths.filter(path -> path.getFileName().toString().endsWith(DICTIONARY_EXTENSION)).sorted().toList();
+        }
+
+        for (Path dictionaryFile : dictionaryFiles) {
+            String relativePath = sourceDirectory.relativize(dictionaryFile).toString();
+            String baseName = relativePath.substring(0, relativePath.length() - DICTIONARY_EXTENSION.length());
+            HyphenDict dict;
+            try {
+                dict = HyphenDictBuilder.fromFile(dictionaryFile.toString());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error reading dictionary " + dictionaryFile + ": " + e.getMessage());
+                continue;
+            }
+
+            Path image = outputDirectory.resolve(baseName + DictionaryImage.FILE_EXTENSION);
+            Files.createDirectories(image.getParent());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(image))) {
+                DictionaryImage.write(dict, out);
+            }
+            System.out.println("Compiled dictionary image: " + image);
+
+            Path wordList = sourceDirectory.resolve(baseName + HyphenationLexicon.WORD_LIST_EXTENSION);
+            if (Files.isRegularFile(wordList)) {
+                HyphenationLexicon lexicon = HyphenationLexicon.build(dict, Files.readAllLines(wordList, StandardCharsets.UTF_8));
+                Path target = outputDirectory.resolve(baseName + HyphenationLexicon.FILE_EXTENSION);
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                    lexicon.writeTo(out);
+                }
+                System.out.println("Compiled lexicon of " + lexicon.size() + " words: " + target);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.sevcik.hypherator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary image of a fully built {@link HyphenDict}, so that loading a dictionary needs no parsing.
+ * <p>
+ * The image stores every level of the dictionary with its header values (LEFTHYPHENMIN and friends),
+ * NOHYPHEN entries and the packed arrays of its pattern and NOHYPHEN tries, including the replacement
+ * side table. Reading it copies those arrays out of a {@link ByteBuffer} in bulk; images on the file system
+ * are memory-mapped. The hyphen sign is not part of the image, it comes from the dictionary index.
+ * <p>
+ * Layout (big endian): magic {@code "HYDI"}, version, level count, then per level: four header ints,
+ * NOHYPHEN entry count and entries (length-prefixed chars), pattern trie, NOHYPHEN trie.
+ */
+final class DictionaryImage {
+    static final String FILE_EXTENSION = ".dicb";
+
+    private static final int MAGIC = 0x48594449; // "HYDI"
+    private static final int VERSION = 1;
+
+    private DictionaryImage() {
+    }
+
+    static void write(HyphenDict dict, OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        int levelCount = 0;
+        for (HyphenDict level = dict; level != null; level = level.nextLevel) {
+            levelCount++;
+        }
+        out.writeInt(levelCount);
+
+        for (HyphenDict level = dict; level != null; level = level.nextLevel) {
+            out.writeInt(level.leftHyphenMin);
+            out.writeInt(level.rightHyphenMin);
+            out.writeInt(level.leftCompoundMin);
+            out.writeInt(level.rightCompoundMin);
+            out.writeInt(level.noHyphens.size());
+            for (String noHyphen : level.noHyphens) {
+                out.writeInt(noHyphen.length());
+                out.writeChars(noHyphen);
+            }
+            level.getPatternTrie().writeTo(out);
+            level.getNoHyphenTrie().writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns a CRC-32 of the image of the dictionary, which identifies its patterns whether they were parsed
+     * or read from an image.
+     */
+    static long checksum(HyphenDict dict) throws IOException {
+        CheckedOutputStream out = new CheckedOutputStream(OutputStream.nullOutputStream(), new CRC32());
+        write(dict, out);
+        return out.getChecksum().getValue();
+    }
+
+    /**
+     * Restores a dictionary from an image, starting at the current position of {@code buffer}.
+     *
+     * @throws IOException if the buffer does not hold a complete image of a supported version
+     */
+    static HyphenDict read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC)
+                throw new IOException("Not a dictionary image");
+            int version = buffer.getInt();
+            if (version != VERSION)
+                throw new IOException("Unsupported dictionary image version: " + version);
+
+            int levelCount = buffer.getInt();
+            HyphenDict first = null;
+            HyphenDict previous = null;
+            for (int i = 0; i < levelCount; i++) {
+                HyphenDict level = new HyphenDict();
+                level.leftHyphenMin = buffer.getInt();
+                level.rightHyphenMin = buffer.getInt();
+                level.leftCompoundMin = buffer.getInt();
+                level.rightCompoundMin = buffer.getInt();
+                int noHyphenCount = buffer.getInt();
+                List<String> noHyphens = new ArrayList<>(noHyphenCount);
+                for (int j = 0; j < noHyphenCount; j++) {
+                    char[] noHyphen = new char[buffer.getInt()];
+                    buffer.asCharBuffer().get(noHyphen);
+                    buffer.position(buffer.position() + 2 * noHyphen.length);
+                    noHyphens.add(new String(noHyphen));
+                }
+                level.noHyphens = noHyphens;
+                level.restoreTries(PatternTrie.readFrom(buffer), PatternTrie.readFrom(buffer));
+
+                if (previous == null) {
+                    first = level;
+                } else {
+                    previous.nextLevel = level;
+                }
+                previous = level;
+            }
+            if (first == null)
+                throw new IOException("Dictionary image without levels");
+            first.freeze();
+            return first;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            throw new IOException("Truncated or corrupt dictionary image", e);
+        }
+    }
+
+    /**
+     * Restores a dictionary from an image resource. Images on the file system are memory-mapped,
+     * others (e.g. inside a jar) are read into a heap buffer.
+     */
+    static HyphenDict load(URL url) throws IOException {
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+                return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid dictionary image location: " + url, e);
+            }
+        }
+        try (InputStream is = url.openStream()) {
+            return read(ByteBuffer.wrap(is.readAllBytes()));
+        }
+    }
+
+    /**
+     * Restores a dictionary from an image file read into a heap buffer. Meant for files that may change while
+     * they are read, e.g. on reload: a mapping of a file truncated meanwhile fails with an {@link InternalError},
+     * while a partly written copy is only reported as a corrupt image.
+     */
+    static HyphenDict load(Path file) throws IOException {
+        return read(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+}
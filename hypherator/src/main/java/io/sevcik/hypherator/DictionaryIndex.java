@@ -0,0 +1,88 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.DictionaryEntry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the index of the bundled dictionaries.
+ * <p>
+ * The index is generated by the dictionaries processor of hypherator-tools in two forms. The line-based
+ * {@code all.idx} manifest is read with plain string splitting: one dictionary per line, tab separated
+ * locations, locales (each space separated) and hyphen; lines starting with {@code #} are comments.
+ * Only if it is missing, {@code all.json} is read with Jackson, so Jackson stays off the startup path.
+ */
+final class DictionaryIndex {
+    static final String MANIFEST_PATH = "/hyphen/all.idx";
+    static final String ALL_JSON_PATH = "/hyphen/all.json";
+
+    private DictionaryIndex() {
+    }
+
+    /**
+     * Reads the index from the manifest, or from all.json if there is no manifest.
+     *
+     * @throws IOException if neither can be read
+     */
+    static List<DictionaryEntry> read() throws IOException {
+        try (InputStream is = Hypherator.class.getResourceAsStream(MANIFEST_PATH)) {
+            if (is != null) {
+                return readManifest(is);
+            }
+        }
+        return JsonIndex.read();
+    }
+
+    static List<DictionaryEntry> readManifest(InputStream inputStream) throws IOException {
+        List<DictionaryEntry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length != 3) {
+                throw new IOException("Malformed line " + lineNumber + " in " + MANIFEST_PATH + ": " + line);
+            }
+            DictionaryEntry entry = new DictionaryEntry();
+            entry.setLocations(splitList(fields[0]));
+            entry.setLocales(splitList(fields[1]));
+            entry.setHyphen(fields[2]);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static List<String> splitList(String field) {
+        return field.isBlank() ? List.of() : Arrays.asList(field.trim().split(" +"));
+    }
+
+    /**
+     * Fallback for an index without manifest. A separate class, so that Jackson is only loaded when it is needed.
+     */
+    private static final class JsonIndex {
+        static List<DictionaryEntry> read() throws IOException {
+            try (InputStream is = Hypherator.class.getResourceAsStream(ALL_JSON_PATH)) {
+                if (is == null) {
+                    throw new IOException("Resource not found: " + ALL_JSON_PATH);
+                }
+
+                ObjectMapper objectMapper = new ObjectMapper();
+                return objectMapper.readValue(is, new TypeReference<List<DictionaryEntry>>() {});
+            }
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.DictionaryEntry;
+import io.sevcik.hypherator.dto.ResidentDictionaryStats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Index of the available dictionaries, which builds each {@link HyphenDict} on first request.
+ * <p>
+ * Loads are keyed by dictionary location, so a dictionary shared by several locales is built once.
+ * The first thread asking for a dictionary builds it; concurrent requests for the same dictionary
+ * wait for that in-flight load instead of starting their own. Loads can also be started on an executor,
+ * e.g. to build all dictionaries in parallel; the same shared in-flight loads are used then.
+ * A failed load is remembered and not retried.
+ * <p>
+ * The set of resident dictionaries can be bounded by count and by estimated size. When a load exceeds the limit,
+ * the least recently requested dictionaries are dropped from the registry; the next request loads them again.
+ * Requests only stamp an access tick, so lookups stay lock-free; the eviction scan runs after loads.
+ * Without a limit, requests do not touch the tick at all.
+ * Iterators still holding an evicted dictionary keep working with it.
+ * <p>
+ * A new version of a dictionary is published by {@link #replace(String, HyphenDict)} with a single atomic
+ * swap of its map entry. Readers never lock, and iterators created before the swap finish on the old version.
+ */
+final class DictionaryRegistry {
+
+    /**
+     * Builds the dictionary of an index entry.
+     */
+    @FunctionalInterface
+    interface Loader {
+        HyphenDict load(DictionaryEntry entry) throws IOException;
+    }
+
+    private final Map<String, DictionaryEntry> entriesByLocale;
+    private final Loader loader;
+    private final ConcurrentHashMap<String, Resident> loads = new ConcurrentHashMap<>();
+    private final Set<String> evictedLocations = ConcurrentHashMap.newKeySet();
+    private final AtomicLong clock = new AtomicLong();
+
+    private volatile int maxResidentDictionaries = 0;
+    private volatile long maxResidentBytes = 0;
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder reloadCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder reloadNanos = new LongAdder();
+
+    DictionaryRegistry(List<DictionaryEntry> entries, Loader loader) {
+        Map<String, DictionaryEntry> byLocale = new LinkedHashMap<>();
+        for (DictionaryEntry entry : entries) {
+            if (entry.getLocations() == null || entry.getLocations().isEmpty() || entry.getLocales() == null || entry.getLocales().isEmpty()) {
+                continue;
+            }
+            for (String locale : entry.getLocales()) {
+                byLocale.put(locale, entry);
+            }
+        }
+        this.entriesByLocale = byLocale;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the dictionary of the given locale, loading it if necessary.
+     *
+     * @return the dictionary, or {@code null} if there is none for the locale or it failed to load
+     */
+    HyphenDict get(String locale) {
+        DictionaryEntry entry = entriesByLocale.get(locale);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return load(entry, null).join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Starts loading the dictionary of the given locale on {@code executor}, unless it is already loaded or loading.
+     *
+     * @return a future of the dictionary, completed with {@code null} if there is none for the locale or it failed to load
+     */
+    CompletableFuture<HyphenDict> loadAsync(String locale, Executor executor) {
+        DictionaryEntry entry = entriesByLocale.get(locale);
+        if (entry == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return load(entry, executor).handle((dict, failure) -> failure == null ? dict : null);
+    }
+
+    /**
+     * Starts loading all dictionaries of the index on {@code executor}, each as a separate task.
+     *
+     * @return a future completed once every load has finished, whether it succeeded or not
+     */
+    CompletableFuture<Void> loadAllAsync(Executor executor) {
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (DictionaryEntry entry : entries()) {
+            pending.add(load(entry, executor).handle((dict, failure) -> null));
+        }
+        return CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Returns the dictionary of the given locale if it is resident, without loading it.
+     */
+    HyphenDict getIfLoaded(String locale) {
+        DictionaryEntry entry = entriesByLocale.get(locale);
+        if (entry == null) {
+            return null;
+        }
+        Resident resident = loads.get(location(entry));
+        return resident == null ? null : resident.dictionary();
+    }
+
+    /**
+     * Publishes a new version of the dictionary of the given locale, for all locales sharing its dictionary.
+     * A load of the old version still in flight completes for its waiting callers only.
+     *
+     * @return {@code false} if the locale is not in the index
+     */
+    boolean replace(String locale, HyphenDict dict) {
+        DictionaryEntry entry = entriesByLocale.get(locale);
+        if (entry == null) {
+            return false;
+        }
+        String location = location(entry);
+        Resident resident = new Resident(clock.incrementAndGet());
+        resident.bytes = dict.retainedBytes() + dict.offHeapBytes();
+        resident.future.complete(dict);
+        loads.put(location, resident);
+        evictedLocations.remove(location);
+        evict(resident);
+        return true;
+    }
+
+    /**
+     * Returns the index entry of the given locale, or {@code null} if there is none.
+     */
+    DictionaryEntry entry(String locale) {
+        return entriesByLocale.get(locale);
+    }
+
+    /**
+     * Returns the index entries, one per dictionary.
+     */
+    List<DictionaryEntry> entries() {
+        Set<String> locations = new HashSet<>();
+        List<DictionaryEntry> entries = new ArrayList<>();
+        for (DictionaryEntry entry : entriesByLocale.values()) {
+            if (locations.add(location(entry))) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    boolean contains(String locale) {
+        return entriesByLocale.containsKey(locale);
+    }
+
+    /**
+     * Returns all locales of the index, whether their dictionaries are loaded or not.
+     */
+    Iterable<String> locales() {
+        return entriesByLocale.keySet();
+    }
+
+    /**
+     * Returns the resident dictionaries by locale.
+     */
+    Map<String, HyphenDict> loadedDictionaries() {
+        Map<String, HyphenDict> loaded = new HashMap<>();
+        for (String locale : entriesByLocale.keySet()) {
+            HyphenDict dict = getIfLoaded(locale);
+            if (dict != null) {
+                loaded.put(locale, dict);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Bounds the resident dictionaries and evicts right away if they exceed the new limits.
+     *
+     * @param maxDictionaries maximum number of resident dictionaries, {@code 0} for no limit
+     * @param maxBytes maximum estimated size of the resident dictionaries, {@code 0} for no limit
+     */
+    void setResidentLimit(int maxDictionaries, long maxBytes) {
+        if (maxDictionaries < 0 || maxBytes < 0)
+            throw new IllegalArgumentException("Resident limits must not be negative: " + maxDictionaries + ", " + maxBytes);
+        this.maxResidentDictionaries = maxDictionaries;
+        this.maxResidentBytes = maxBytes;
+        evict(null);
+    }
+
+    ResidentDictionaryStats stats() {
+        int resident = 0;
+        long bytes = 0;
+        for (Resident entry : loads.values()) {
+            if (entry.dictionary() != null) {
+                resident++;
+                bytes += entry.bytes;
+            }
+        }
+        return new ResidentDictionaryStats(loadCount.sum(), reloadCount.sum(), evictionCount.sum(), reloadNanos.sum(), resident, bytes);
+    }
+
+    /**
+     * Returns the shared load of a dictionary, starting it if needed: on {@code executor}, or in the calling thread
+     * if {@code executor} is {@code null}.
+     */
+    private CompletableFuture<HyphenDict> load(DictionaryEntry entry, Executor executor) {
+        String location = location(entry);
+        Resident resident = loads.get(location);
+        if (resident != null) {
+            touch(resident);
+            return resident.future;
+        }
+
+        Resident created = new Resident(clock.incrementAndGet());
+        resident = loads.putIfAbsent(location, created);
+        if (resident != null) {
+            touch(resident);
+            return resident.future;
+        }
+        if (executor == null) {
+            build(entry, location, created);
+            return created.future;
+        }
+        try {
+            executor.execute(() -> build(entry, location, created));
+        } catch (RejectedExecutionException e) {
+            // not a failure of the dictionary, a later request may load it again
+            loads.remove(location, created);
+            created.future.completeExceptionally(e);
+        }
+        return created.future;
+    }
+
+    /**
+     * Records an access for eviction. Only done while a resident limit is set, so that the lookups of an unbounded
+     * registry do not contend on the shared clock; until then, dictionaries are ordered by load.
+     */
+    private void touch(Resident resident) {
+        if (maxResidentDictionaries != 0 || maxResidentBytes != 0)
+            resident.lastAccess = clock.incrementAndGet();
+    }
+
+    private void build(DictionaryEntry entry, String location, Resident resident) {
+        long start = System.nanoTime();
+        HyphenDict dict;
+        try {
+            dict = loader.load(entry);
+        } catch (Throwable e) {
+            // errors included, or every caller waiting for the load would block forever
+            resident.future.completeExceptionally(e);
+            if (e instanceof Error error)
+                throw error;
+            return;
+        }
+
+        loadCount.increment();
+        if (evictedLocations.remove(location)) {
+            reloadCount.increment();
+            reloadNanos.add(System.nanoTime() - start);
+        }
+        resident.bytes = dict.retainedBytes() + dict.offHeapBytes();
+        resident.future.complete(dict);
+        evict(resident);
+    }
+
+    /**
+     * Drops the least recently requested dictionaries until the resident ones fit the limits.
+     * The dictionary just loaded, {@code keep}, is never dropped, even if it alone exceeds the limits.
+     */
+    private synchronized void evict(Resident keep) {
+        int maxDictionaries = maxResidentDictionaries;
+        long maxBytes = maxResidentBytes;
+        if (maxDictionaries == 0 && maxBytes == 0)
+            return;
+
+        while (true) {
+            int count = 0;
+            long bytes = 0;
+            String victim = null;
+            Resident victimEntry = null;
+            for (Map.Entry<String, Resident> candidate : loads.entrySet()) {
+                Resident resident = candidate.getValue();
+                if (resident.dictionary() == null)
+                    continue;
+                count++;
+                bytes += resident.bytes;
+                if (resident != keep && (victimEntry == null || resident.lastAccess < victimEntry.lastAccess)) {
+                    victim = candidate.getKey();
+                    victimEntry = resident;
+                }
+            }
+
+            boolean overLimit = (maxDictionaries > 0 && count > maxDictionaries) || (maxBytes > 0 && bytes > maxBytes);
+            if (!overLimit || victimEntry == null)
+                return;
+            if (loads.remove(victim, victimEntry)) {
+                evictedLocations.add(victim);
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static String location(DictionaryEntry entry) {
+        return entry.getLocations().get(0);
+    }
+
+    /**
+     * A dictionary load and its bookkeeping for eviction.
+     */
+    private static final class Resident {
+        final CompletableFuture<HyphenDict> future = new CompletableFuture<>();
+        volatile long lastAccess;
+        volatile long bytes = 0;
+
+        Resident(long lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+
+        /**
+         * Returns the loaded dictionary, or {@code null} while loading or if the load failed.
+         */
+        HyphenDict dictionary() {
+            if (!future.isDone() || future.isCompletedExceptionally())
+                return null;
+            return future.join();
+        }
+    }
+}
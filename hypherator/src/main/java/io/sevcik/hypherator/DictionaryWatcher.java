@@ -0,0 +1,138 @@
+package io.sevcik.hypherator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches a dictionary directory and reloads dictionaries whose files change.
+ * <p>
+ * The directory has the layout of the bundled dictionaries, e.g. {@code en/hyph_en_US.dic}. Changes of
+ * {@code .dic} files and of compiled {@code .dicb} images are collected until the directory has been quiet
+ * for a short while, so that a file written in several steps is reloaded once. Reloads run on the watcher's
+ * own daemon thread; see {@link Hypherator#watchDictionaries(Path)}.
+ */
+public final class DictionaryWatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryWatcher.class);
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final Path directory;
+    private final BiConsumer<String, Path> reloader;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    /**
+     * @param reloader called with the location of each changed dictionary, relative to {@code directory}
+     *                 with {@code /} separators and the {@code .dic} extension, and with the file that changed:
+     *                 the {@code .dic} file or the {@code .dicb} image, whichever was written last
+     */
+    DictionaryWatcher(Path directory, BiConsumer<String, Path> reloader) throws IOException {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.reloader = reloader;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        try {
+            registerAll(this.directory);
+        } catch (IOException e) {
+            watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "hypherator-dictionary-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the watched directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops watching. Dictionaries already reloaded stay in use.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void registerAll(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirectories.put(key, path);
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Map<String, Path> changed = new LinkedHashMap<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collect(key, changed);
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                for (Map.Entry<String, Path> change : changed.entrySet()) {
+                    String location = change.getKey();
+                    try {
+                        reloader.accept(location, change.getValue());
+                    } catch (Throwable e) {
+                        // errors included, the watcher must survive a file caught in the middle of a write
+                        logger.warn("Failed to reload dictionary: {}", location, e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collect(WatchKey key, Map<String, Path> changed) {
+        Path parent = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (parent == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                continue;
+            }
+            Path path = parent.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerAll(path);
+                } catch (IOException e) {
+                    logger.warn("Failed to watch directory: {}", path, e);
+                }
+                continue;
+            }
+            String location = directory.relativize(path).toString().replace('\\', '/');
+            if (location.endsWith(DictionaryImage.FILE_EXTENSION)) {
+                location = location.substring(0, location.length() - DictionaryImage.FILE_EXTENSION.length()) + ".dic";
+            }
+            if (location.endsWith(".dic")) {
+                changed.remove(location);
+                changed.put(location, path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+}
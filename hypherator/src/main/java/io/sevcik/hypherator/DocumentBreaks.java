@@ -0,0 +1,250 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hyphenation points of a whole document, in flat primitive arrays ordered by offset.
+ * <p>
+ * The {@code i}-th break lies at {@code offset(i)} of the text, inside the word {@code text[wordStart(i), wordEnd(i))};
+ * words are found as by {@link TextHyphenator}. A document is hyphenated by {@link Hyphenator#hyphenateDocument(CharSequence, int)}:
+ * the text is cut at whitespace into chunks, the chunks are hyphenated in parallel on a {@link ForkJoinPool} and
+ * their breaks are concatenated in text order. All chunks share the dictionary and its caches.
+ * <br><br>
+ * Instances are immutable; the arrays are returned without copying and must not be modified.
+ */
+public final class DocumentBreaks {
+    /**
+     * Default number of characters per chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+    private final int[] offsets;
+    private final byte[] priorities;
+    private final int[] wordStarts;
+    private final int[] wordEnds;
+    private final HyphenDict.BreakRule[] rules;
+
+    DocumentBreaks(int[] offsets, byte[] priorities, int[] wordStarts, int[] wordEnds, HyphenDict.BreakRule[] rules) {
+        this.offsets = offsets;
+        this.priorities = priorities;
+        this.wordStarts = wordStarts;
+        this.wordEnds = wordEnds;
+        this.rules = rules;
+    }
+
+    /**
+     * Hyphenates {@code text} in the calling thread.
+     */
+    static DocumentBreaks compute(HyphenDict dict, CharSequence text, int urgency) {
+        return compute(dict, text, urgency, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Hyphenates {@code text} in chunks of about {@code chunkSize} characters on {@code pool}.
+     */
+    static DocumentBreaks compute(HyphenDict dict, CharSequence text, int urgency, ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int start = 0;
+        while (start < text.length()) {
+            int end = (int) Math.min(text.length(), (long) start + chunkSize);
+            // words never contain whitespace, so no word is cut
+            while (end < text.length() && !Character.isWhitespace(text.charAt(end)))
+                end++;
+            bounds.add(end);
+            start = end;
+        }
+
+        Chunk[] chunks = new Chunk[bounds.size() - 1];
+        ChunkTask task = new ChunkTask(dict, text, urgency, bounds, chunks, 0, chunks.length);
+        if (chunks.length <= 1) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+
+        int size = 0;
+        boolean hasRules = false;
+        for (Chunk chunk : chunks) {
+            size += chunk.size;
+            hasRules |= chunk.rules != null;
+        }
+        int[] offsets = new int[size];
+        byte[] priorities = new byte[size];
+        int[] wordStarts = new int[size];
+        int[] wordEnds = new int[size];
+        HyphenDict.BreakRule[] rules = hasRules ? new HyphenDict.BreakRule[size] : null;
+        int position = 0;
+        for (Chunk chunk : chunks) {
+            System.arraycopy(chunk.offsets, 0, offsets, position, chunk.size);
+            System.arraycopy(chunk.priorities, 0, priorities, position, chunk.size);
+            System.arraycopy(chunk.wordStarts, 0, wordStarts, position, chunk.size);
+            System.arraycopy(chunk.wordEnds, 0, wordEnds, position, chunk.size);
+            if (chunk.rules != null)
+                System.arraycopy(chunk.rules, 0, rules, position, chunk.size);
+            position += chunk.size;
+        }
+        return new DocumentBreaks(offsets, priorities, wordStarts, wordEnds, rules);
+    }
+
+    /**
+     * Returns the number of breaks.
+     */
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns the offsets of all breaks in the text.
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the priorities of all breaks.
+     */
+    public byte[] priorities() {
+        return priorities;
+    }
+
+    /**
+     * Returns the offset of the {@code index}-th break in the text.
+     */
+    public int offset(int index) {
+        checkIndex(index);
+        return offsets[index];
+    }
+
+    /**
+     * Returns the offset of the first character of the word containing the {@code index}-th break.
+     */
+    public int wordStart(int index) {
+        checkIndex(index);
+        return wordStarts[index];
+    }
+
+    /**
+     * Returns the offset after the last character of the word containing the {@code index}-th break.
+     */
+    public int wordEnd(int index) {
+        checkIndex(index);
+        return wordEnds[index];
+    }
+
+    /**
+     * Returns {@code true} if applying the {@code index}-th break changes the characters around it,
+     * see {@link BreakSet#hasReplacement(int)}.
+     */
+    public boolean hasReplacement(int index) {
+        checkIndex(index);
+        return rules != null && rules[index] != null && rules[index].replacement != null;
+    }
+
+    /**
+     * Returns the {@code index}-th break as an opaque {@link PotentialBreak} handle of its word, to be applied with
+     * {@link Hyphenator#applyBreak(CharSequence, int, int, PotentialBreak, Appendable, Appendable)} to
+     * {@code text[wordStart(index), wordEnd(index))}. A new handle is created on every call.
+     */
+    public PotentialBreak potentialBreak(int index) {
+        checkIndex(index);
+        return new PotentialBreakImpl(offsets[index] - wordStarts[index], priorities[index], rules == null ? null : rules[index]);
+    }
+
+    HyphenDict.BreakRule breakRule(int index) {
+        return rules == null ? null : rules[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= offsets.length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + offsets.length);
+    }
+
+    /**
+     * Breaks of one chunk of the text.
+     */
+    private static final class Chunk {
+        int size = 0;
+        int[] offsets = new int[64];
+        byte[] priorities = new byte[64];
+        int[] wordStarts = new int[64];
+        int[] wordEnds = new int[64];
+        HyphenDict.BreakRule[] rules = null;
+
+        void add(int offset, int priority, int wordStart, int wordEnd, HyphenDict.BreakRule rule) {
+            if (size == offsets.length) {
+                int capacity = size * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+                wordStarts = Arrays.copyOf(wordStarts, capacity);
+                wordEnds = Arrays.copyOf(wordEnds, capacity);
+                if (rules != null)
+                    rules = Arrays.copyOf(rules, capacity);
+            }
+            offsets[size] = offset;
+            priorities[size] = (byte) priority;
+            wordStarts[size] = wordStart;
+            wordEnds[size] = wordEnd;
+            if (rule != null) {
+                if (rules == null)
+                    rules = new HyphenDict.BreakRule[offsets.length];
+                rules[size] = rule;
+            }
+            size++;
+        }
+    }
+
+    /**
+     * Hyphenates the chunks {@code [from, to)}, splitting the range in halves until a single chunk is left.
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private final HyphenDict dict;
+        private final CharSequence text;
+        private final int urgency;
+        private final List<Integer> bounds;
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(HyphenDict dict, CharSequence text, int urgency, List<Integer> bounds, Chunk[] chunks, int from, int to) {
+            this.dict = dict;
+            this.text = text;
+            this.urgency = urgency;
+            this.bounds = bounds;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(dict, text, urgency, bounds, chunks, from, middle),
+                        new ChunkTask(dict, text, urgency, bounds, chunks, middle, to));
+                return;
+            }
+            if (from == to)
+                return;
+
+            TextHyphenator hyphenator = new TextHyphenator(dict);
+            hyphenator.setUrgency(urgency);
+            hyphenator.setText(text, bounds.get(from), bounds.get(from + 1));
+            Chunk chunk = new Chunk();
+            for (long offset = hyphenator.next(); offset != TextHyphenator.DONE; offset = hyphenator.next()) {
+                int wordStart = (int) hyphenator.wordOffset();
+                chunk.add((int) offset, hyphenator.priority(), wordStart, wordStart + hyphenator.word().length(), hyphenator.breakRule());
+            }
+            chunks[from] = chunk;
+        }
+    }
+}
@@ -3,60 +3,257 @@ package io.sevcik.hypherator;
 import java.util.*;
 
  class HyphenDict {
-    protected Integer leftHyphenMin = 0;
-    protected Integer rightHyphenMin = 0;
-    protected Integer leftCompoundMin = 0;
-    protected Integer rightCompoundMin = 0;
+    private static final int SEGMENT_CACHE_GENERATION_SIZE = 2048;
+    private static final int LEVEL_BYTES = 16 + 4 * 4 + 12 * 4;
+    private static final int STRING_BYTES = 24 + 16;
+
+    protected int leftHyphenMin = 0;
+    protected int rightHyphenMin = 0;
+    protected int leftCompoundMin = 0;
+    protected int rightCompoundMin = 0;
 
-    protected Map<String, Rule> rules = new HashMap<String, Rule>();
     protected HyphenDict nextLevel = null;
     protected List<String> noHyphens = new ArrayList<>();
     protected String hyphen;
+    private PatternTrie.Builder patternBuilder = new PatternTrie.Builder();
+    private volatile PatternTrie patternTrie = null;
+    private PatternTrie.Builder noHyphenBuilder = new PatternTrie.Builder();
+    private volatile PatternTrie noHyphenTrie = null;
+    private volatile boolean frozen = false;
+    private volatile SegmentCache segmentCache = null;
+    private volatile WordCache wordCache = null;
+    private volatile HyphenationLexicon lexicon = null;
+    private volatile Hyphenator hyphenator = null;
+
+    /**
+     * Inserts a pattern. When the same letters were inserted before, the higher priority wins for every position.
+     *
+     * @param match the letters of the pattern
+     * @param priorities one priority per gap of {@code match}, i.e. {@code match.length() + 1} values
+     * @param replacementPosition the gap to which {@code replacement} belongs
+     * @param replacement replacement data of a non-standard pattern, or {@code null}
+     * @throws IllegalStateException if the dictionary is frozen
+     */
+    protected void insertPattern(String match, byte[] priorities, int replacementPosition, BreakRule replacement) {
+        synchronized (this) {
+            checkNotFrozen();
+            patternBuilder.insert(match, priorities, replacementPosition, replacement);
+            patternTrie = null;
+            lexicon = null;
+        }
+    }
 
-    protected void insertRule(Rule newRule) {
-        var key = newRule.match;
-        if (rules.containsKey(key)) {
-            var existingRule = rules.get(key);
-            for (var newBreakRule : newRule.breakRules.entrySet()) {
-                var existingBreakRule = existingRule.getBreakRules().get(newBreakRule.getKey());
-                if (existingBreakRule != null) {
-                    if (!existingBreakRule.equals(newBreakRule.getValue())) {
-                        // in such a case, which one has higher priority?
-                        var oldPriority = existingBreakRule.getValue();
-                        var newPriority = newBreakRule.getValue().getValue();
-                        if (newPriority > oldPriority) {
-                            existingRule.breakRules.put(newBreakRule.getKey(), newBreakRule.getValue());
-                        }
-                    }
-                } else {
-                    existingRule.breakRules.put(newBreakRule.getKey(), newBreakRule.getValue());
+    protected void insertNoHyphen(String noHyphen) {
+        synchronized (this) {
+            checkNotFrozen();
+            noHyphens.add(noHyphen);
+            // only the end of an entry matters to the matcher, its priorities stay empty
+            noHyphenBuilder.insert(noHyphen, new byte[noHyphen.length() + 1], 0, null);
+            noHyphenTrie = null;
+            lexicon = null;
+        }
+    }
+
+    /**
+     * Returns the packed patterns of this level. They are built on first use and rebuilt after the patterns change.
+     */
+    protected PatternTrie getPatternTrie() {
+        PatternTrie trie = patternTrie;
+        if (trie == null) {
+            synchronized (this) {
+                trie = patternTrie;
+                if (trie == null) {
+                    trie = patternBuilder.build();
+                    patternTrie = trie;
                 }
             }
-        } else {
-            rules.put(key, newRule);
         }
+        return trie;
     }
 
-    protected void insertNoHyphen(String noHyphen) {
-        noHyphens.add(noHyphen);
+    /**
+     * Returns all {@link #noHyphens} entries compiled into one trie; a node holds a pattern exactly where an entry ends.
+     */
+    protected PatternTrie getNoHyphenTrie() {
+        PatternTrie trie = noHyphenTrie;
+        if (trie == null) {
+            synchronized (this) {
+                trie = noHyphenTrie;
+                if (trie == null) {
+                    trie = noHyphenBuilder.build();
+                    noHyphenTrie = trie;
+                }
+            }
+        }
+        return trie;
     }
 
-    public static class Rule {
-        String match;
-        Map<Integer, BreakRule> breakRules = new HashMap<Integer, BreakRule>();
+    /**
+     * Installs tries built elsewhere, e.g. restored from a {@link DictionaryImage}, on a freshly created level.
+     * They replace whatever was inserted before. The level should be frozen afterwards.
+     */
+    protected void restoreTries(PatternTrie patterns, PatternTrie noHyphenPatterns) {
+        synchronized (this) {
+            checkNotFrozen();
+            patternTrie = patterns;
+            noHyphenTrie = noHyphenPatterns;
+        }
+    }
 
-        public String getMatch() {
-            return match;
+    /**
+     * Compacts this dictionary, all levels included, into its read-only form: the tries are built, the build-time
+     * structures released and the NOHYPHEN list made immutable. Calling it again has no effect.
+     * Patterns cannot be inserted into a frozen dictionary; caches and the lexicon can still be set.
+     */
+    protected void freeze() {
+        for (HyphenDict level = this; level != null; level = level.nextLevel) {
+            synchronized (level) {
+                if (level.frozen)
+                    continue;
+                level.getPatternTrie();
+                level.getNoHyphenTrie();
+                level.patternBuilder = null;
+                level.noHyphenBuilder = null;
+                level.noHyphens = List.copyOf(level.noHyphens);
+                level.frozen = true;
+            }
         }
+    }
 
-        public Rule setMatch(String match) {
-            this.match = match;
-            return this;
+    /**
+     * Freezes this dictionary and moves the packed patterns of all levels into direct buffers outside of the heap.
+     * Calling it again has no effect.
+     */
+    protected void moveOffHeap() {
+        freeze();
+        for (HyphenDict level = this; level != null; level = level.nextLevel) {
+            synchronized (level) {
+                level.patternTrie = level.patternTrie.toOffHeap();
+                level.noHyphenTrie = level.noHyphenTrie.toOffHeap();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes of pattern data held outside of the heap, all levels included.
+     */
+    protected long offHeapBytes() {
+        long bytes = 0;
+        for (HyphenDict level = this; level != null; level = level.nextLevel) {
+            bytes += level.getPatternTrie().offHeapBytes();
+            bytes += level.getNoHyphenTrie().offHeapBytes();
         }
+        return bytes;
+    }
 
-        public Map<Integer, BreakRule> getBreakRules() {
-            return breakRules;
+    protected boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen)
+            throw new IllegalStateException("Dictionary is frozen");
+    }
+
+    /**
+     * Returns the cache of compound segments matched against this level, created on first use.
+     */
+    protected SegmentCache getSegmentCache() {
+        SegmentCache cache = segmentCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = segmentCache;
+                if (cache == null) {
+                    cache = new SegmentCache(SEGMENT_CACHE_GENERATION_SIZE);
+                    segmentCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the thread-safe hyphenator of this dictionary, created on first use.
+     */
+    protected Hyphenator getHyphenator() {
+        Hyphenator result = hyphenator;
+        if (result == null) {
+            synchronized (this) {
+                result = hyphenator;
+                if (result == null) {
+                    result = new Hyphenator(this);
+                    hyphenator = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Enables caching of whole-word results with the given size of the shared tier, replacing any previous cache.
+     * A size of {@code 0} disables the cache.
+     */
+    protected void setWordCacheSize(int maximumSize) {
+        wordCache = maximumSize > 0 ? new WordCache(maximumSize) : null;
+    }
+
+    /**
+     * Returns the word cache, or {@code null} if word caching is not enabled.
+     */
+    protected WordCache getWordCache() {
+        return wordCache;
+    }
+
+    /**
+     * Attaches precomputed results of frequent words. They must have been computed from the current patterns;
+     * inserting a pattern or a NOHYPHEN entry afterwards drops the lexicon again.
+     */
+    protected void setLexicon(HyphenationLexicon lexicon) {
+        this.lexicon = lexicon;
+    }
+
+    /**
+     * Returns the precomputed results of frequent words, or {@code null} if there are none.
+     */
+    protected HyphenationLexicon getLexicon() {
+        return lexicon;
+    }
+
+    /**
+     * Returns an estimate of the heap retained by the packed patterns of this dictionary, all levels included,
+     * and by its lexicon.
+     */
+    protected long footprint() {
+        HyphenationLexicon precomputed = lexicon;
+        long bytes = precomputed != null ? precomputed.footprint() : 0;
+        for (HyphenDict level = this; level != null; level = level.nextLevel) {
+            bytes += level.getPatternTrie().footprint();
+            bytes += level.getNoHyphenTrie().footprint();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns an estimate of all heap retained by this dictionary, all levels included: packed patterns, NOHYPHEN
+     * entries, lexicon and - until the dictionary is frozen - the build-time structures. Caches are not included,
+     * their size is bounded separately.
+     */
+    protected long retainedBytes() {
+        long bytes = footprint();
+        for (HyphenDict level = this; level != null; level = level.nextLevel) {
+            bytes += LEVEL_BYTES;
+            bytes += 16 + 4L * level.noHyphens.size();
+            for (String noHyphen : level.noHyphens) {
+                bytes += STRING_BYTES + 2L * noHyphen.length();
+            }
+            synchronized (level) {
+                if (level.patternBuilder != null)
+                    bytes += level.patternBuilder.footprint();
+                if (level.noHyphenBuilder != null)
+                    bytes += level.noHyphenBuilder.footprint();
+            }
         }
+        return bytes;
     }
 
     public static class BreakRule {
@@ -17,6 +17,7 @@ import org.slf4j.LoggerFactory;
 class HyphenDictBuilder {
     private static final Logger logger = LoggerFactory.getLogger(HyphenDictBuilder.class);
     private static final List<String> DEFAULT_NO_HYPHEN_LIST = Arrays.stream("',–,’,-".split(",")).toList();
+    private static final byte NO_VALUE = -1;
 
 
     public static HyphenDict fromFile(String filename) throws IOException {
@@ -102,6 +103,7 @@ class HyphenDictBuilder {
                 baseLevel.nextLevel = dict;
                 dict = baseLevel;
             }
+            dict.freeze();
             return dict;
         } catch (IOException e) {
             logger.error("Error reading input stream", e);
@@ -123,26 +125,27 @@ class HyphenDictBuilder {
             logger.info("Replacing broken rule: {}", line);
             line = "gic5csetek/cs=,3,1";
         }
-        HyphenDict.Rule rule = new HyphenDict.Rule();
         String replRule = null;
         if (line.contains("/")) {
             replRule = line.substring(line.indexOf("/") + 1);
             line = line.substring(0, line.indexOf("/"));
         }
 
+        // values[i] is the digit in front of the i-th letter, NO_VALUE where the pattern has no digit
+        byte[] values = new byte[line.length() + 1];
+        Arrays.fill(values, NO_VALUE);
         StringBuilder word = new StringBuilder();
         for (int i = 0; i < line.length(); i++) {
             if (Character.isDigit(line.charAt(i))) {
-                int value = Character.getNumericValue(line.charAt(i));
-                rule.getBreakRules().put(word.length(), new HyphenDict.BreakRule().setValue(value));
+                values[word.length()] = (byte) Character.getNumericValue(line.charAt(i));
             } else {
                 word.append(line.charAt(i));
             }
         }
+        String match = word.toString();
 
-        // Set the match property of the rule
-        rule.setMatch(word.toString());
-
+        HyphenDict.BreakRule relevantBreak = null;
+        int relevantPosition = 0;
         if (replRule != null) {
             String[] replData = replRule.split(",");
             if (replData.length == 3) {
@@ -150,30 +153,34 @@ class HyphenDictBuilder {
                 var replacementIndex = Integer.parseInt(replData[1]);
                 var replacementCount = Integer.parseInt(replData[2]);
 
-                HyphenDict.BreakRule relevantBreak = null;
-                if (rule.getMatch().startsWith("."))
+                if (match.startsWith("."))
                     replacementIndex++;
 
                 // now search if there is break within the given replacement region
                 for (int i = replacementIndex-1; i < replacementIndex + replacementCount; i++) {
-                    var potentialBreak = rule.getBreakRules().get(i);
-                    if (potentialBreak == null)
+                    if (i < 0 || i > match.length() || values[i] == NO_VALUE)
                         continue;
                     if (relevantBreak != null)
                         throw new RuntimeException("CHECKPOINT - Multiple break rules within the same replacement region");
-                    relevantBreak = potentialBreak;
+                    relevantBreak = new HyphenDict.BreakRule().setValue(values[i]);
+                    relevantPosition = i;
                     replacementIndex = replacementIndex - i;
                 }
 
+                if (relevantBreak == null)
+                    throw new RuntimeException("No break rule within the replacement region");
                 relevantBreak.setReplacement(replacement);
                 relevantBreak.setReplacementIndex(replacementIndex);
                 relevantBreak.setReplacementCount(replacementCount);
             } else if (replData.length == 1) {
                 var replacement = replData[0];
                 var replacementIndex = 1;
-                var replacementCount = rule.getMatch().length();
+                var replacementCount = match.length();
 
-                var relevantBreak = rule.getBreakRules().get(replacementIndex);
+                if (match.length() < replacementIndex || values[replacementIndex] == NO_VALUE)
+                    throw new RuntimeException("No break rule at the replacement position");
+                relevantBreak = new HyphenDict.BreakRule().setValue(values[replacementIndex]);
+                relevantPosition = replacementIndex;
                 relevantBreak.setReplacement(replacement);
                 relevantBreak.setReplacementIndex(replacementIndex);
                 relevantBreak.setReplacementCount(replacementCount);
@@ -182,7 +189,11 @@ class HyphenDictBuilder {
             }
         }
 
-        dict.insertRule(rule);
+        byte[] priorities = new byte[match.length() + 1];
+        for (int i = 0; i < priorities.length; i++) {
+            priorities[i] = values[i] == NO_VALUE ? 0 : values[i];
+        }
+        dict.insertPattern(match, priorities, relevantPosition, relevantBreak);
     }
 
 
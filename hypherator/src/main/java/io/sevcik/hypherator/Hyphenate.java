@@ -2,8 +2,11 @@ package io.sevcik.hypherator;
 
 import io.sevcik.hypherator.dto.Pair;
 import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordSplit;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 /**
  * Interface for direct interaction with hyphenation logic.<br><br>
@@ -26,6 +29,29 @@ public interface Hyphenate {
      */
     List<PotentialBreak> hyphenate(HyphenDict dict, String text);
 
+    /**
+     * Finds the hyphenation opportunities of the given text like {@link #hyphenate(HyphenDict, String)}, but stores them
+     * into the reusable {@code result} instead of allocating a list. The previous content of {@code result} is discarded.
+     *
+     * @param dict the hyphenation dictionary
+     * @param text the input word or text
+     * @param result the set to fill
+     */
+    void hyphenate(HyphenDict dict, CharSequence text, BreakSet result);
+
+    /**
+     * Finds the hyphenation opportunities of the word in {@code text[offset, offset + length)} like
+     * {@link #hyphenate(HyphenDict, CharSequence, BreakSet)}, without copying it. Positions in {@code result}
+     * are relative to {@code offset}.
+     *
+     * @param dict the hyphenation dictionary
+     * @param text the buffer holding the word
+     * @param offset the index of the first character of the word
+     * @param length the length of the word
+     * @param result the set to fill
+     */
+    void hyphenate(HyphenDict dict, char[] text, int offset, int length, BreakSet result);
+
     /**
      * Applies a given {@link PotentialBreak} to the input text, returning the result as a pair (before and after the hyphenation point).<br>
      * <b>Prefer using {@link HyphenationIterator} to process and apply hyphenation points.</b>
@@ -36,6 +62,34 @@ public interface Hyphenate {
      */
     Pair<String, String> applyBreak(String text, PotentialBreak breakRule);
 
+    /**
+     * Applies a given {@link PotentialBreak} to the word {@code text[start, end)}, appending the part before
+     * the hyphenation point to {@code left} and the part after it to {@code right}. Characters are appended
+     * straight from {@code text} and the replacement of a non-standard break, without intermediate strings.
+     *
+     * @param text the text holding the word
+     * @param start the index of the first character of the word
+     * @param end the index after the last character of the word
+     * @param breakRule the potential break to be applied, found for the word
+     * @param left receives the text before the break
+     * @param right receives the text after the break
+     * @throws IOException if appending fails
+     */
+    void applyBreak(CharSequence text, int start, int end, PotentialBreak breakRule, Appendable left, Appendable right) throws IOException;
+
+    /**
+     * Applies a given {@link PotentialBreak} to the word {@code text[offset, offset + length)}, like
+     * {@link #applyBreak(CharSequence, int, int, PotentialBreak, Appendable, Appendable)}.
+     *
+     * @param text the buffer holding the word
+     * @param offset the index of the first character of the word
+     * @param length the length of the word
+     * @param breakRule the potential break to be applied, found for the word
+     * @param left receives the text before the break
+     * @param right receives the text after the break
+     */
+    void applyBreak(char[] text, int offset, int length, PotentialBreak breakRule, StringBuilder left, StringBuilder right);
+
     /**
      * Returns a list of hyphenation opportunities ({@link PotentialBreak}) for the right part of the text already hyphenated.
      * <b>Prefer using {@link io.sevcik.hypherator.HyphenationIterator} to process and apply hyphenation points.</b>
@@ -45,4 +99,19 @@ public interface Hyphenate {
      * @param breakPosition the position of the break point
      */
     List<PotentialBreak> getFurtherHyphenations(HyphenDict dict, List<PotentialBreak> currentBreaks, PotentialBreak breakPosition, String rightPart);
+
+    /**
+     * Splits a word over lines in a single pass. Each line takes the furthest break whose part of the word, with
+     * the hyphen, fits the width of the line, or the nearest break if none fits. Breaks of the right parts are
+     * found as by {@link #getFurtherHyphenations(HyphenDict, List, PotentialBreak, String)}, with their positions
+     * shifted by the characters of replacement breaks.
+     *
+     * @param dict the hyphenation dictionary
+     * @param word the word
+     * @param breaks the breaks of the word to choose from, ordered by position
+     * @param lineWidths the width available on each line, by line index starting at 0
+     * @param measure measures the width of the fragments
+     * @return the fragments of the word and the applied breaks
+     */
+    WordSplit split(HyphenDict dict, String word, List<PotentialBreak> breaks, IntToDoubleFunction lineWidths, ParagraphBreaker.TextMeasure measure);
 }
\ No newline at end of file
@@ -2,9 +2,14 @@ package io.sevcik.hypherator;
 
 import io.sevcik.hypherator.dto.Pair;
 import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordSplit;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.IntToDoubleFunction;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -15,7 +20,7 @@ class HyphenateImpl implements Hyphenate {
     @Override
     public Pair<String, String> applyBreak(String text, PotentialBreak breakRule) {
         PotentialBreakImpl breakRuleImpl = (PotentialBreakImpl) breakRule;
-        if (breakRuleImpl.breakRule().replacement != null) {
+        if (breakRuleImpl.hasReplacement()) {
             var replacementStart = breakRuleImpl.position() + breakRuleImpl.breakRule().replacementIndex - 1; // because replacement index by spec starts at 1
             var substituedText =
                     text.substring(0, replacementStart) + // position points AFTER the character in question, so we have to cut one before
@@ -31,46 +36,250 @@ class HyphenateImpl implements Hyphenate {
         }
     }
 
+    @Override
+    public void applyBreak(CharSequence text, int start, int end, PotentialBreak breakRule, Appendable left, Appendable right) throws IOException {
+        Objects.checkFromToIndex(start, end, text.length());
+        PotentialBreakImpl breakRuleImpl = (PotentialBreakImpl) breakRule;
+        int position = start + breakRuleImpl.position();
+        if (breakRuleImpl.hasReplacement()) {
+            HyphenDict.BreakRule rule = breakRuleImpl.breakRule();
+            int replacementStart = position + rule.replacementIndex - 1; // because replacement index by spec starts at 1
+            int separator = rule.replacement.indexOf('=');
+            left.append(text, start, replacementStart).append(rule.replacement, 0, separator);
+            right.append(rule.replacement, separator + 1, rule.replacement.length()).append(text, replacementStart + rule.replacementCount, end);
+        } else {
+            left.append(text, start, position);
+            right.append(text, position, end);
+        }
+    }
+
+    @Override
+    public void applyBreak(char[] text, int offset, int length, PotentialBreak breakRule, StringBuilder left, StringBuilder right) {
+        Objects.checkFromIndexSize(offset, length, text.length);
+        PotentialBreakImpl breakRuleImpl = (PotentialBreakImpl) breakRule;
+        int position = offset + breakRuleImpl.position();
+        int end = offset + length;
+        if (breakRuleImpl.hasReplacement()) {
+            HyphenDict.BreakRule rule = breakRuleImpl.breakRule();
+            int replacementStart = position + rule.replacementIndex - 1; // because replacement index by spec starts at 1
+            int separator = rule.replacement.indexOf('=');
+            left.append(text, offset, replacementStart - offset).append(rule.replacement, 0, separator);
+            right.append(rule.replacement, separator + 1, rule.replacement.length())
+                    .append(text, replacementStart + rule.replacementCount, end - replacementStart - rule.replacementCount);
+        } else {
+            left.append(text, offset, position - offset);
+            right.append(text, position, end - position);
+        }
+    }
+
     @Override
     public List<PotentialBreak> getFurtherHyphenations(HyphenDict dict, List<PotentialBreak> currentBreaks, PotentialBreak breakPosition, String rightPart) {
         List<PotentialBreak> result = new ArrayList<>();
         PotentialBreakImpl breakPositionImpl = (PotentialBreakImpl) breakPosition;
         for (var potentialBreak : currentBreaks) {
             PotentialBreakImpl potentialBreakImpl = (PotentialBreakImpl) potentialBreak;
-            if (potentialBreakImpl.position() <= breakPositionImpl.position() + dict.leftHyphenMin) {
+            int position = positionInRightPart(breakPositionImpl, potentialBreakImpl);
+            if (position <= dict.leftHyphenMin) {
                 continue;
             }
-            // TODO: take into account the current break rule and calculate if there is shift in the right part.
-            result.add(new PotentialBreakImpl(potentialBreakImpl.position() - breakPositionImpl.position(), potentialBreakImpl.priority(), potentialBreakImpl.breakRule()));
+            result.add(new PotentialBreakImpl(position, potentialBreakImpl.priority(), potentialBreakImpl.breakRule()));
         }
         cleanBreaksAtEdges(dict, rightPart, result);
         return result;
     }
 
+    @Override
+    public WordSplit split(HyphenDict dict, String word, List<PotentialBreak> breaks, IntToDoubleFunction lineWidths, ParagraphBreaker.TextMeasure measure) {
+        String hyphen = dict.hyphen != null ? dict.hyphen : "-";
+        List<String> fragments = new ArrayList<>();
+        List<PotentialBreak> applied = new ArrayList<>();
+        StringBuilder fragment = new StringBuilder();
+        String rest = word;                 // the right part left by the last applied break
+        PotentialBreakImpl last = null;     // the last applied break, in positions of the word
+        int next = 0;
+
+        for (int line = 0; measure.width(rest, 0, rest.length()) > lineWidths.applyAsDouble(line); line++) {
+            double width = lineWidths.applyAsDouble(line);
+            PotentialBreakImpl chosen = null;
+            int chosenIndex = -1;
+            for (int i = next; i < breaks.size(); i++) {
+                PotentialBreakImpl candidate = (PotentialBreakImpl) breaks.get(i);
+                PotentialBreakImpl shifted = candidate;
+                if (last != null) {
+                    int position = positionInRightPart(last, candidate);
+                    if (position <= dict.leftHyphenMin || position < firstAllowedBreak(dict, rest) || position > lastAllowedBreak(dict, rest))
+                        continue;
+                    shifted = new PotentialBreakImpl(position, candidate.priority(), candidate.breakRule());
+                }
+                fragment.setLength(0);
+                appendLeftPart(rest, shifted, fragment);
+                fragment.append(hyphen);
+                boolean fits = measure.width(fragment, 0, fragment.length()) <= width;
+                if (fits || chosen == null) {
+                    chosen = shifted;
+                    chosenIndex = i;
+                }
+                if (!fits)
+                    break;
+            }
+            if (chosen == null)
+                break;
+
+            fragment.setLength(0);
+            appendLeftPart(rest, chosen, fragment);
+            fragments.add(fragment.toString());
+            fragment.setLength(0);
+            appendRightPart(rest, chosen, fragment);
+            rest = fragment.toString();
+            last = (PotentialBreakImpl) breaks.get(chosenIndex);
+            applied.add(last);
+            next = chosenIndex + 1;
+        }
+        fragments.add(rest);
+        return new WordSplit(Collections.unmodifiableList(fragments), Collections.unmodifiableList(applied));
+    }
+
+    /**
+     * Returns the position of {@code potentialBreak} in the right part left by {@code appliedBreak}, both given in
+     * positions of the same word, or {@code -1} if it does not lie there. A replacement break starts the right part
+     * with its own characters, which shifts the following positions.
+     */
+    static int positionInRightPart(PotentialBreakImpl appliedBreak, PotentialBreakImpl potentialBreak) {
+        int rightStart = appliedBreak.position();
+        int inserted = 0;
+        if (appliedBreak.hasReplacement()) {
+            HyphenDict.BreakRule rule = appliedBreak.breakRule();
+            rightStart = appliedBreak.position() + rule.replacementIndex - 1 + rule.replacementCount;
+            inserted = rule.replacement.length() - rule.replacement.indexOf('=') - 1;
+        }
+        int leftEnd = potentialBreak.position();
+        if (potentialBreak.hasReplacement())
+            leftEnd = potentialBreak.position() + potentialBreak.breakRule().replacementIndex - 1;
+        if (potentialBreak.position() <= appliedBreak.position() || leftEnd < rightStart)
+            return -1;
+        return potentialBreak.position() - rightStart + inserted;
+    }
+
+    private static void appendLeftPart(String text, PotentialBreakImpl breakRule, StringBuilder left) {
+        if (breakRule.hasReplacement()) {
+            HyphenDict.BreakRule rule = breakRule.breakRule();
+            left.append(text, 0, breakRule.position() + rule.replacementIndex - 1).append(rule.replacement, 0, rule.replacement.indexOf('='));
+        } else {
+            left.append(text, 0, breakRule.position());
+        }
+    }
+
+    private static void appendRightPart(String text, PotentialBreakImpl breakRule, StringBuilder right) {
+        if (breakRule.hasReplacement()) {
+            HyphenDict.BreakRule rule = breakRule.breakRule();
+            right.append(rule.replacement, rule.replacement.indexOf('=') + 1, rule.replacement.length())
+                    .append(text, breakRule.position() + rule.replacementIndex - 1 + rule.replacementCount, text.length());
+        } else {
+            right.append(text, breakRule.position(), text.length());
+        }
+    }
+
     @Override
     public List<PotentialBreak> hyphenate(HyphenDict dict, String text) {
-        List<PotentialBreak> possibleBreaks = applyStandardRules(dict, text, true, true);
-        applyNohyphenRules(dict, text, possibleBreaks);
-        // apply rules for not breaking too close to the word ends
-        cleanBreaksAtEdges(dict, text, possibleBreaks);
+        WordCache cache = dict.getWordCache();
+        if (cache != null) {
+            List<PotentialBreak> cached = cache.get(text);
+            if (cached != null)
+                return cached;
+        }
+
+        BreakSet breaks = HyphenationWorkspace.get().breaks();
+        breaks.clear();
+        findBreaks(dict, text, breaks);
+        List<PotentialBreak> possibleBreaks = toList(breaks);
+        if (cache != null) {
+            possibleBreaks = Collections.unmodifiableList(possibleBreaks);
+            cache.put(text, possibleBreaks);
+        }
+        return possibleBreaks;
+    }
+
+    @Override
+    public void hyphenate(HyphenDict dict, CharSequence text, BreakSet result) {
+        result.clear();
+        WordCache cache = dict.getWordCache();
+        if (cache == null) {
+            findBreaks(dict, text, result);
+            return;
+        }
+
+        List<PotentialBreak> cached = cache.get(text);
+        if (cached != null) {
+            for (PotentialBreak potentialBreak : cached) {
+                PotentialBreakImpl potentialBreakImpl = (PotentialBreakImpl) potentialBreak;
+                result.add(potentialBreakImpl.position(), potentialBreakImpl.priority(), potentialBreakImpl.breakRule());
+            }
+            return;
+        }
+        findBreaks(dict, text, result);
+        cache.put(text.toString(), Collections.unmodifiableList(toList(result)));
+    }
+
+    @Override
+    public void hyphenate(HyphenDict dict, char[] text, int offset, int length, BreakSet result) {
+        CharArrayWindow window = HyphenationWorkspace.get().window(text, offset, length);
+        try {
+            hyphenate(dict, window, result);
+        } finally {
+            window.clear();
+        }
+    }
+
+    private static List<PotentialBreak> toList(BreakSet breaks) {
+        List<PotentialBreak> possibleBreaks = new ArrayList<>(breaks.size());
+        for (int i = 0; i < breaks.size(); i++) {
+            possibleBreaks.add(new PotentialBreakImpl(breaks.position(i), breaks.priority(i), breaks.breakRule(i)));
+        }
         return possibleBreaks;
     }
 
+    /**
+     * Appends the breaks of {@code text} to {@code result}, from the precomputed lexicon if the word is in it,
+     * otherwise by running the pattern engine.
+     */
+    private void findBreaks(HyphenDict dict, CharSequence text, BreakSet result) {
+        HyphenationLexicon lexicon = dict.getLexicon();
+        if (lexicon != null && lexicon.lookup(text, result))
+            return;
+
+        HyphenationWorkspace workspace = HyphenationWorkspace.get();
+        HyphenationWorkspace.Frame frame = workspace.frame(0, text.length() + 2);
+        frame.load(text, 0, text.length());
+        applyStandardRules(dict, workspace, frame, 0, true, true);
+        long[] forbiddenBreaks = applyNohyphenRules(dict, text, workspace);
+
+        // apply rules for not breaking too close to the word ends
+        int firstAllowed = firstAllowedBreak(dict, text);
+        int lastAllowed = lastAllowedBreak(dict, text);
+
+        for (int i = max(firstAllowed + 1, 1); i < frame.length && i <= lastAllowed + 1; i++) {
+            if (frame.priorities[i] % 2 == 1 && (forbiddenBreaks == null || !isSet(forbiddenBreaks, i - 1))) {
+                result.add(i - 1, frame.priorities[i], frame.rules[i]);
+            }
+        }
+    }
+
     private void cleanBreaksAtEdges(HyphenDict dict, String text, List<PotentialBreak> possibleBreaks) {
-        int digitsFromLeft = 0;
-        int digitsFromRight = 0;
+        int firstAllowed = firstAllowedBreak(dict, text);
+        int lastAllowed = lastAllowedBreak(dict, text);
+        possibleBreaks.removeIf(
+                breakRule -> ((PotentialBreakImpl)breakRule).position() < firstAllowed ||
+                        ((PotentialBreakImpl)breakRule).position() > lastAllowed);
+    }
 
+    private int firstAllowedBreak(HyphenDict dict, CharSequence text) {
+        int digitsFromLeft = 0;
         while (digitsFromLeft < text.length() && text.charAt(digitsFromLeft) >= '0' && text.charAt(digitsFromLeft) <= '9')
             digitsFromLeft++;
-        while (digitsFromRight < text.length() && text.charAt(text.length() - 1 - digitsFromRight) >= '0' && text.charAt(text.length() - 1 - digitsFromRight) <= '9')
-            digitsFromRight++;
 
         int leftHyphenMin = dict.leftHyphenMin > 0 ? dict.leftHyphenMin : DEFAULT_HYPHEN_MIN;
-        int rightHyphenMin = dict.rightHyphenMin > 0 ? dict.rightHyphenMin : DEFAULT_HYPHEN_MIN;
 
         int ligaturesFromLeft = 0;
-        int ligaturesFromRight = 0;
-
         for (int i = 0; i < min(leftHyphenMin, text.length()); i++) {
             if (text.charAt(i) >= '\ufb00' && text.charAt(i) <= '\ufb06') {
                 ligaturesFromLeft++;
@@ -80,6 +289,17 @@ class HyphenateImpl implements Hyphenate {
             }
         }
 
+        return leftHyphenMin + digitsFromLeft - ligaturesFromLeft;
+    }
+
+    private int lastAllowedBreak(HyphenDict dict, CharSequence text) {
+        int digitsFromRight = 0;
+        while (digitsFromRight < text.length() && text.charAt(text.length() - 1 - digitsFromRight) >= '0' && text.charAt(text.length() - 1 - digitsFromRight) <= '9')
+            digitsFromRight++;
+
+        int rightHyphenMin = dict.rightHyphenMin > 0 ? dict.rightHyphenMin : DEFAULT_HYPHEN_MIN;
+
+        int ligaturesFromRight = 0;
         for (int i = max(text.length() - rightHyphenMin, 0); i < text.length(); i++) {
             if (text.charAt(i) >= '\ufb00' && text.charAt(i) <= '\ufb06') {
                 ligaturesFromRight++;
@@ -89,73 +309,140 @@ class HyphenateImpl implements Hyphenate {
             }
         }
 
-        int skipFromLeft = digitsFromLeft - ligaturesFromLeft;
-        int skipFromRight = digitsFromRight - ligaturesFromRight;
+        return text.length() - rightHyphenMin - digitsFromRight + ligaturesFromRight;
+    }
 
-        possibleBreaks.removeIf(
-                breakRule -> ((PotentialBreakImpl)breakRule).position() < leftHyphenMin + skipFromLeft ||
-                        ((PotentialBreakImpl)breakRule).position() > text.length() - rightHyphenMin - skipFromRight);
-    }
-
-    private void applyNohyphenRules(HyphenDict dict, String text, List<PotentialBreak> possibleBreaks) {
-        for (String noHyphen : dict.noHyphens) {
-            int index = text.indexOf(noHyphen);
-            while (index >= 0) {
-                final int start = index;
-                final int end = index + noHyphen.length();
-                possibleBreaks.removeIf(pb -> ((PotentialBreakImpl)pb).position() == start ||  ((PotentialBreakImpl)pb).position() == end);
-                index = text.indexOf(noHyphen, index + 1);
+    /**
+     * Scans the word once for all NOHYPHEN entries and returns the positions next to any occurrence as a bit set,
+     * or {@code null} if the dictionary has no such entries.
+     */
+    private long[] applyNohyphenRules(HyphenDict dict, CharSequence text, HyphenationWorkspace workspace) {
+        PatternTrie trie = dict.getNoHyphenTrie();
+        if (trie.isEmpty())
+            return null;
+
+        int textLength = text.length();
+        long[] forbiddenBreaks = workspace.breakMask(textLength + 1);
+        boolean matchesEmpty = trie.patternAt(PatternTrie.ROOT) != PatternTrie.NO_PATTERN;
+        for (int start = 0; start <= textLength; start++) {
+            if (matchesEmpty)
+                setBit(forbiddenBreaks, start);
+            int node = PatternTrie.ROOT;
+            for (int end = start; end < textLength; end++) {
+                node = trie.step(node, text.charAt(end));
+                if (node == PatternTrie.NO_NODE)
+                    break;
+                if (trie.patternAt(node) != PatternTrie.NO_PATTERN) {
+                    setBit(forbiddenBreaks, start);
+                    setBit(forbiddenBreaks, end + 1);
+                }
             }
         }
+        return forbiddenBreaks;
     }
 
+    private static void setBit(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
 
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
 
-    private List<PotentialBreak> applyStandardRules(HyphenDict dict, String text, boolean isWordLeftEnd, boolean isWordRightEnd) {
-        text = "." + text.replaceAll("\\d", ".") + ".";
-        Pair<Integer, HyphenDict.BreakRule>[] potentialBreaks = new Pair[text.length()];
-        for (int i = 0; i < potentialBreaks.length; i++) {
-            potentialBreaks[i] = new Pair<>(0, null);
-        }
-
-        applyRulesFromDict(dict, text, potentialBreaks);
+    /**
+     * Finds the breaks of the word loaded in {@code frame}. On return, {@code frame.priorities[i]} holds the
+     * priority of the break in front of the {@code i}-th character of the dotted text - that is at position
+     * {@code i - 1} of the word - and {@code frame.rules[i]} its replacement rule, if any.
+     */
+    private void applyStandardRules(HyphenDict dict, HyphenationWorkspace workspace, HyphenationWorkspace.Frame frame, int depth, boolean isWordLeftEnd, boolean isWordRightEnd) {
+        applyRulesFromDict(dict, frame);
 
         if (dict.nextLevel != null) {
+            byte[] potentialBreaks = frame.priorities;
+            int length = frame.length;
             int lastBreakPosition = 1; // why 1 / -1? because of the dots added at the beginnign and end of the word
-            for (int i = 2; i <= potentialBreaks.length - 1; i++) {
-                if (i == potentialBreaks.length - 1 && lastBreakPosition == 1) {
+            for (int i = 2; i <= length - 1; i++) {
+                if (i == length - 1 && lastBreakPosition == 1) {
                     // We cannot further split this word using compound rules - the word is not compount anymore, apply nextlevel rules
-                    var newBreaks = applyStandardRules(dict.nextLevel, text.substring(1, text.length() - 1), isWordLeftEnd, isWordRightEnd);
-                    mergeBreakList(newBreaks, lastBreakPosition, potentialBreaks);
-                    applyBorderRules(potentialBreaks, dict.leftCompoundMin, dict.rightCompoundMin, isWordLeftEnd, isWordRightEnd);
-                } else if (((potentialBreaks[i].getFirst() % 2 == 1) || (i == potentialBreaks.length - 1))) {
+                    var nested = workspace.frame(depth + 1, length);
+                    nested.load(frame.text, 1, length - 1);
+                    applySegmentRules(dict.nextLevel, workspace, nested, depth + 1, isWordLeftEnd, isWordRightEnd, lastBreakPosition, frame);
+                    applyBorderRules(frame, dict.leftCompoundMin, dict.rightCompoundMin, isWordLeftEnd, isWordRightEnd);
+                } else if (((potentialBreaks[i] % 2 == 1) || (i == length - 1))) {
                     // This word was broken down, so try to apply compound rules to subparts
-                    var potentialBreak = potentialBreaks[i].getSecond();
-                    var previousBreak = potentialBreaks[lastBreakPosition].getSecond();
-                    String segment = text.substring(lastBreakPosition, i);
-                    segment = applyReplacementToSegment(segment, previousBreak, potentialBreak);
+                    var potentialBreak = frame.rules[i];
+                    var previousBreak = frame.rules[lastBreakPosition];
+                    HyphenationWorkspace.Frame nested;
+                    if (hasReplacement(previousBreak) || hasReplacement(potentialBreak)) {
+                        String segment = applyReplacementToSegment(new String(frame.text, lastBreakPosition, i - lastBreakPosition), previousBreak, potentialBreak);
+                        nested = workspace.frame(depth + 1, segment.length() + 2);
+                        nested.load(segment, 0, segment.length());
+                    } else {
+                        nested = workspace.frame(depth + 1, i - lastBreakPosition + 2);
+                        nested.load(frame.text, lastBreakPosition, i);
+                    }
 
                     int segmentOffsetAfterReplacement = 0;
-                    if (previousBreak != null && previousBreak.replacement != null) {
+                    if (hasReplacement(previousBreak)) {
                         String replacementRight = previousBreak.replacement.substring(previousBreak.replacement.indexOf("=") + 1);
                         segmentOffsetAfterReplacement =
                                 (previousBreak.replacementIndex + previousBreak.replacementCount - 1) - replacementRight.length();
                     }
 
-                    var newBreaks = applyStandardRules(dict, segment, i == 1 && isWordLeftEnd, i == potentialBreaks.length - 1 && isWordRightEnd);
-                    mergeBreakList(newBreaks, lastBreakPosition + segmentOffsetAfterReplacement, potentialBreaks);
+                    applySegmentRules(dict, workspace, nested, depth + 1, i == 1 && isWordLeftEnd, i == length - 1 && isWordRightEnd,
+                            lastBreakPosition + segmentOffsetAfterReplacement, frame);
                     lastBreakPosition = i;
                 }
             }
         }
+    }
 
-        List<PotentialBreak> result = new ArrayList<>();
-        for (int i = 1; i < potentialBreaks.length; i++) {
-            if (potentialBreaks[i].getFirst() % 2 == 1) {
-                result.add(new PotentialBreakImpl(i-1, potentialBreaks[i].getFirst(), potentialBreaks[i].getSecond()));
+    /**
+     * Finds the breaks of the compound segment loaded in {@code nested} and merges them into {@code target} at {@code offset}.
+     * Segments seen before are taken from the segment cache of {@code dict} without matching.
+     */
+    private void applySegmentRules(HyphenDict dict, HyphenationWorkspace workspace, HyphenationWorkspace.Frame nested, int depth,
+                                   boolean isWordLeftEnd, boolean isWordRightEnd, int offset, HyphenationWorkspace.Frame target) {
+        SegmentCache cache = dict.getSegmentCache();
+        SegmentCache.Key probe = workspace.segmentKey().set(nested.text, nested.length, isWordLeftEnd, isWordRightEnd);
+        SegmentCache.Breaks breaks = cache.get(probe);
+        if (breaks == null) {
+            // the probe is reused by the nested levels, so detach the key first
+            SegmentCache.Key key = probe.copy();
+            applyStandardRules(dict, workspace, nested, depth, isWordLeftEnd, isWordRightEnd);
+            breaks = collectBreaks(nested);
+            cache.put(key, breaks);
+        }
+        mergeBreakList(breaks, offset, target);
+    }
+
+    private static SegmentCache.Breaks collectBreaks(HyphenationWorkspace.Frame frame) {
+        int count = 0;
+        boolean hasRules = false;
+        for (int i = 1; i < frame.length; i++) {
+            if (frame.priorities[i] % 2 == 1) {
+                count++;
+                hasRules |= frame.rules[i] != null;
             }
         }
-        return result;
+        int[] positions = new int[count];
+        byte[] priorities = new byte[count];
+        HyphenDict.BreakRule[] rules = hasRules ? new HyphenDict.BreakRule[count] : null;
+        int index = 0;
+        for (int i = 1; i < frame.length; i++) {
+            if (frame.priorities[i] % 2 == 1) {
+                positions[index] = i - 1;
+                priorities[index] = frame.priorities[i];
+                if (rules != null)
+                    rules[index] = frame.rules[i];
+                index++;
+            }
+        }
+        return new SegmentCache.Breaks(positions, priorities, rules);
+    }
+
+    private static boolean hasReplacement(HyphenDict.BreakRule breakRule) {
+        return breakRule != null && breakRule.replacement != null;
     }
 
     private String applyReplacementToSegment(String segment, HyphenDict.BreakRule breakLeft, HyphenDict.BreakRule breakRight) {
@@ -170,27 +457,36 @@ class HyphenateImpl implements Hyphenate {
         return segment;
     }
 
-    private void mergeBreakList(List<PotentialBreak> newBreaks, int offset, Pair<Integer, HyphenDict.BreakRule>[] potentialBreaks) {
-        for (var newBreak : newBreaks) {
-            var newBreakPosition = ((PotentialBreakImpl)newBreak).position() + offset;
-            potentialBreaks[newBreakPosition].setFirst(((PotentialBreakImpl)newBreak).priority());
-            potentialBreaks[newBreakPosition].setSecond(((PotentialBreakImpl)newBreak).breakRule());
+    private void mergeBreakList(SegmentCache.Breaks newBreaks, int offset, HyphenationWorkspace.Frame target) {
+        for (int i = 0; i < newBreaks.positions.length; i++) {
+            var newBreakPosition = newBreaks.positions[i] + offset;
+            target.priorities[newBreakPosition] = newBreaks.priorities[i];
+            target.rules[newBreakPosition] = newBreaks.rules == null ? null : newBreaks.rules[i];
         }
     }
 
-    private void applyRulesFromDict(HyphenDict dict, String text, Pair<Integer, HyphenDict.BreakRule>[] breakCandidates) {
-        int textLength = text.length();
+    private void applyRulesFromDict(HyphenDict dict, HyphenationWorkspace.Frame frame) {
+        PatternTrie trie = dict.getPatternTrie();
+        char[] text = frame.text;
+        byte[] priorities = frame.priorities;
+        HyphenDict.BreakRule[] rules = frame.rules;
+        int textLength = frame.length;
         for (int start = 0; start < textLength - 1; start++) {
-            for (int end = start + 1; end <= textLength; end++) {
-                String toMatch = text.substring(start, end).toLowerCase();
-                if (dict.rules.containsKey(toMatch)) {
-                    for (var breakRuleEntry : dict.rules.get(toMatch).getBreakRules().entrySet()) {
-                        int breakPosition = start + breakRuleEntry.getKey();
-                        int priority = breakRuleEntry.getValue().getValue();
-                        if (priority > breakCandidates[breakPosition].getFirst()) {
-                            breakCandidates[breakPosition].setFirst(priority);
-                            breakCandidates[breakPosition].setSecond(breakRuleEntry.getValue());
-                        }
+            int node = PatternTrie.ROOT;
+            for (int end = start; end < textLength; end++) {
+                node = trie.step(node, text[end]);
+                if (node == PatternTrie.NO_NODE)
+                    break;
+                int pattern = trie.patternAt(node);
+                if (pattern == PatternTrie.NO_PATTERN)
+                    continue;
+                // the gap after a pattern ending at the last character lies outside the word
+                int patternGaps = min(end - start + 2, textLength - start);
+                for (int gap = 0; gap < patternGaps; gap++) {
+                    int priority = trie.priority(pattern + gap);
+                    if (priority > priorities[start + gap]) {
+                        priorities[start + gap] = (byte) priority;
+                        rules[start + gap] = trie.breakRuleAt(pattern + gap);
                     }
                 }
             }
@@ -198,18 +494,18 @@ class HyphenateImpl implements Hyphenate {
     }
 
 
-    private void applyBorderRules(Pair<Integer, HyphenDict.BreakRule>[] potentialBreaks, int leftHyphenMin, int rightHyphenMin, boolean isWordLeftEnd, boolean isWordRightEnd) {
+    private void applyBorderRules(HyphenationWorkspace.Frame frame, int leftHyphenMin, int rightHyphenMin, boolean isWordLeftEnd, boolean isWordRightEnd) {
         if (!isWordLeftEnd) {
             for (int i = 0; i <= leftHyphenMin; i++) {
-                potentialBreaks[i].setFirst(0);
-                potentialBreaks[i].setSecond(null);
+                frame.priorities[i] = 0;
+                frame.rules[i] = null;
             }
         }
 
         if (!isWordRightEnd) {
-            for (int i = potentialBreaks.length - rightHyphenMin; i < potentialBreaks.length; i++) {
-                potentialBreaks[i].setFirst(0);
-                potentialBreaks[i].setSecond(null);
+            for (int i = frame.length - rightHyphenMin; i < frame.length; i++) {
+                frame.priorities[i] = 0;
+                frame.rules[i] = null;
             }
         }
     }
@@ -0,0 +1,379 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An editable document together with the hyphenation points of its words.
+ * <p>
+ * The document is hyphenated once when created, as by {@link Hyphenator#hyphenateDocument(CharSequence, int)}.
+ * Afterwards it is changed by {@link #edit(int, int, CharSequence)}: only the words containing changed characters
+ * are hyphenated again, the breaks of all other words just move with the text. Both the text and the breaks are
+ * kept in gap buffers with the gap at the last edit; breaks behind the gap are stored relative to the end of the
+ * text, so they shift without being touched. An edit therefore costs in proportion to its size and to the distance
+ * from the previous edit, not to the size of the document.
+ * <br><br>
+ * Breaks are accessed by index in text order, as in {@link DocumentBreaks}. Indexes and offsets are only valid
+ * until the next edit. Instances are not thread-safe.
+ */
+public final class HyphenatedDocument {
+    private final int urgency;
+    private final TextHyphenator hyphenator;
+    private final GapText text;
+
+    // breaks: in front of the gap, offsets are absolute; behind it, relative to the end of the text
+    private int[] offsets;
+    private byte[] priorities;
+    private int[] wordBefore;   // offset - wordStart
+    private int[] wordAfter;    // wordEnd - offset
+    private HyphenDict.BreakRule[] rules = null;
+    private int gapStart;
+    private int gapEnd;
+
+    HyphenatedDocument(HyphenDict dict, CharSequence text, int urgency) {
+        this.urgency = urgency;
+        this.hyphenator = new TextHyphenator(dict);
+        this.hyphenator.setUrgency(urgency);
+        this.text = new GapText(text);
+
+        DocumentBreaks breaks = DocumentBreaks.compute(dict, text, urgency, ForkJoinPool.commonPool(), DocumentBreaks.DEFAULT_CHUNK_SIZE);
+        int size = breaks.size();
+        int capacity = size + Math.max(16, size >> 3);
+        offsets = Arrays.copyOf(breaks.offsets(), capacity);
+        priorities = Arrays.copyOf(breaks.priorities(), capacity);
+        wordBefore = new int[capacity];
+        wordAfter = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            wordBefore[i] = offsets[i] - breaks.wordStart(i);
+            wordAfter[i] = breaks.wordEnd(i) - offsets[i];
+            HyphenDict.BreakRule rule = breaks.breakRule(i);
+            if (rule != null) {
+                if (rules == null)
+                    rules = new HyphenDict.BreakRule[capacity];
+                rules[i] = rule;
+            }
+        }
+        gapStart = size;
+        gapEnd = capacity;
+    }
+
+    /**
+     * Replaces {@code removed} characters at {@code offset} by {@code inserted} and hyphenates the changed words again.
+     *
+     * @param offset the offset of the first replaced character
+     * @param removed the number of characters removed
+     * @param inserted the characters inserted in their place
+     * @throws IndexOutOfBoundsException if the removed range is not within the document
+     */
+    public void edit(int offset, int removed, CharSequence inserted) {
+        int length = text.length();
+        Objects.checkFromIndexSize(offset, removed, length);
+
+        // the changed words lie between the whitespace in front of the edit and the whitespace behind it
+        int start = offset;
+        while (start > 0 && !Character.isWhitespace(text.charAt(start - 1)))
+            start--;
+        int end = offset + removed;
+        while (end < length && !Character.isWhitespace(text.charAt(end)))
+            end++;
+
+        int from = breakIndex(start);
+        int to = breakIndex(end);
+        moveGap(from);
+        gapEnd += to - from;
+
+        // breaks behind the gap stay relative to the end of the text and so move with it
+        text.replace(offset, removed, inserted);
+        end += inserted.length() - removed;
+
+        hyphenator.setText(text, start, end);
+        for (long next = hyphenator.next(); next != TextHyphenator.DONE; next = hyphenator.next()) {
+            int wordStart = (int) hyphenator.wordOffset();
+            insert((int) next, hyphenator.priority(), wordStart, wordStart + hyphenator.word().length(), hyphenator.breakRule());
+        }
+    }
+
+    /**
+     * Replaces the characters {@code [start, end)} by {@code replacement}, see {@link #edit(int, int, CharSequence)}.
+     */
+    public void replace(int start, int end, CharSequence replacement) {
+        Objects.checkFromToIndex(start, end, text.length());
+        edit(start, end - start, replacement);
+    }
+
+    /**
+     * Returns the text of the document. The returned sequence is a live view and changes with every edit.
+     */
+    public CharSequence text() {
+        return text;
+    }
+
+    /**
+     * Returns the number of characters of the document.
+     */
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Returns the urgency level the document is hyphenated at.
+     */
+    public int getUrgency() {
+        return urgency;
+    }
+
+    /**
+     * Returns the number of breaks.
+     */
+    public int size() {
+        return offsets.length - (gapEnd - gapStart);
+    }
+
+    /**
+     * Returns the index of the first break at or after {@code offset}, or {@link #size()} if there is none.
+     */
+    public int breakIndex(int offset) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offsetAt(middle) < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the offset of the {@code index}-th break in the text.
+     */
+    public int offset(int index) {
+        checkIndex(index);
+        return offsetAt(index);
+    }
+
+    /**
+     * Returns the priority of the {@code index}-th break.
+     */
+    public int priority(int index) {
+        checkIndex(index);
+        return priorities[slot(index)];
+    }
+
+    /**
+     * Returns the offset of the first character of the word containing the {@code index}-th break.
+     */
+    public int wordStart(int index) {
+        checkIndex(index);
+        return offsetAt(index) - wordBefore[slot(index)];
+    }
+
+    /**
+     * Returns the offset after the last character of the word containing the {@code index}-th break.
+     */
+    public int wordEnd(int index) {
+        checkIndex(index);
+        return offsetAt(index) + wordAfter[slot(index)];
+    }
+
+    /**
+     * Returns {@code true} if applying the {@code index}-th break changes the characters around it,
+     * see {@link BreakSet#hasReplacement(int)}.
+     */
+    public boolean hasReplacement(int index) {
+        checkIndex(index);
+        return rules != null && rules[slot(index)] != null && rules[slot(index)].replacement != null;
+    }
+
+    /**
+     * Returns the {@code index}-th break as an opaque {@link PotentialBreak} handle of its word, to be applied with
+     * {@link Hyphenator#applyBreak(CharSequence, int, int, PotentialBreak, Appendable, Appendable)} to
+     * {@code text()[wordStart(index), wordEnd(index))}. A new handle is created on every call.
+     */
+    public PotentialBreak potentialBreak(int index) {
+        checkIndex(index);
+        int slot = slot(index);
+        return new PotentialBreakImpl(wordBefore[slot], priorities[slot], rules == null ? null : rules[slot]);
+    }
+
+    /**
+     * Returns a copy of the current breaks as an immutable {@link DocumentBreaks}.
+     */
+    public DocumentBreaks snapshot() {
+        int size = size();
+        int[] snapshotOffsets = new int[size];
+        byte[] snapshotPriorities = new byte[size];
+        int[] wordStarts = new int[size];
+        int[] wordEnds = new int[size];
+        HyphenDict.BreakRule[] snapshotRules = rules == null ? null : new HyphenDict.BreakRule[size];
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            snapshotOffsets[i] = offsetAt(i);
+            snapshotPriorities[i] = priorities[slot];
+            wordStarts[i] = snapshotOffsets[i] - wordBefore[slot];
+            wordEnds[i] = snapshotOffsets[i] + wordAfter[slot];
+            if (snapshotRules != null)
+                snapshotRules[i] = rules[slot];
+        }
+        return new DocumentBreaks(snapshotOffsets, snapshotPriorities, wordStarts, wordEnds, snapshotRules);
+    }
+
+    private int slot(int index) {
+        return index < gapStart ? index : index + gapEnd - gapStart;
+    }
+
+    private int offsetAt(int index) {
+        return index < gapStart ? offsets[index] : offsets[index + gapEnd - gapStart] + text.length();
+    }
+
+    /**
+     * Moves the gap in front of the {@code index}-th break, converting the offsets of the breaks passing it.
+     */
+    private void moveGap(int index) {
+        int length = text.length();
+        if (index < gapStart) {
+            int count = gapStart - index;
+            int target = gapEnd - count;
+            for (int i = count - 1; i >= 0; i--) {
+                offsets[target + i] = offsets[index + i] - length;
+            }
+            System.arraycopy(priorities, index, priorities, target, count);
+            System.arraycopy(wordBefore, index, wordBefore, target, count);
+            System.arraycopy(wordAfter, index, wordAfter, target, count);
+            if (rules != null)
+                System.arraycopy(rules, index, rules, target, count);
+            gapStart = index;
+            gapEnd = target;
+        } else if (index > gapStart) {
+            int count = index - gapStart;
+            for (int i = 0; i < count; i++) {
+                offsets[gapStart + i] = offsets[gapEnd + i] + length;
+            }
+            System.arraycopy(priorities, gapEnd, priorities, gapStart, count);
+            System.arraycopy(wordBefore, gapEnd, wordBefore, gapStart, count);
+            System.arraycopy(wordAfter, gapEnd, wordAfter, gapStart, count);
+            if (rules != null)
+                System.arraycopy(rules, gapEnd, rules, gapStart, count);
+            gapStart = index;
+            gapEnd += count;
+        }
+    }
+
+    /**
+     * Inserts a break at the gap; it must lie between the breaks in front of and behind the gap.
+     */
+    private void insert(int offset, int priority, int wordStart, int wordEnd, HyphenDict.BreakRule rule) {
+        if (gapStart == gapEnd) {
+            int capacity = offsets.length * 2;
+            int tail = offsets.length - gapEnd;
+            int newGapEnd = capacity - tail;
+            offsets = grow(offsets, capacity, tail, newGapEnd);
+            wordBefore = grow(wordBefore, capacity, tail, newGapEnd);
+            wordAfter = grow(wordAfter, capacity, tail, newGapEnd);
+            byte[] newPriorities = Arrays.copyOf(priorities, capacity);
+            System.arraycopy(priorities, gapEnd, newPriorities, newGapEnd, tail);
+            priorities = newPriorities;
+            if (rules != null) {
+                HyphenDict.BreakRule[] newRules = new HyphenDict.BreakRule[capacity];
+                System.arraycopy(rules, 0, newRules, 0, gapStart);
+                System.arraycopy(rules, gapEnd, newRules, newGapEnd, tail);
+                rules = newRules;
+            }
+            gapEnd = newGapEnd;
+        }
+        offsets[gapStart] = offset;
+        priorities[gapStart] = (byte) priority;
+        wordBefore[gapStart] = offset - wordStart;
+        wordAfter[gapStart] = wordEnd - offset;
+        if (rule != null && rules == null)
+            rules = new HyphenDict.BreakRule[offsets.length];
+        if (rules != null)
+            rules[gapStart] = rule;
+        gapStart++;
+    }
+
+    private int[] grow(int[] values, int capacity, int tail, int newGapEnd) {
+        int[] result = Arrays.copyOf(values, capacity);
+        System.arraycopy(values, gapEnd, result, newGapEnd, tail);
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        int size = size();
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+
+    /**
+     * Characters in a gap buffer with the gap at the last edit.
+     */
+    private static final class GapText implements CharSequence {
+        private char[] chars;
+        private int gapStart;
+        private int gapEnd;
+
+        GapText(CharSequence text) {
+            chars = new char[text.length() + 256];
+            for (int i = 0; i < text.length(); i++) {
+                chars[i] = text.charAt(i);
+            }
+            gapStart = text.length();
+            gapEnd = chars.length;
+        }
+
+        void replace(int offset, int removed, CharSequence inserted) {
+            if (offset < gapStart) {
+                System.arraycopy(chars, offset, chars, gapEnd - (gapStart - offset), gapStart - offset);
+                gapEnd -= gapStart - offset;
+            } else if (offset > gapStart) {
+                System.arraycopy(chars, gapEnd, chars, gapStart, offset - gapStart);
+                gapEnd += offset - gapStart;
+            }
+            gapStart = offset;
+            gapEnd += removed;
+
+            int count = inserted.length();
+            if (gapEnd - gapStart < count) {
+                int tail = chars.length - gapEnd;
+                int capacity = Math.max(chars.length * 2, gapStart + count + tail + 256);
+                char[] grown = Arrays.copyOf(chars, capacity);
+                System.arraycopy(chars, gapEnd, grown, capacity - tail, tail);
+                chars = grown;
+                gapEnd = capacity - tail;
+            }
+            for (int i = 0; i < count; i++) {
+                chars[gapStart++] = inserted.charAt(i);
+            }
+        }
+
+        @Override
+        public int length() {
+            return chars.length - (gapEnd - gapStart);
+        }
+
+        @Override
+        public char charAt(int index) {
+            Objects.checkIndex(index, length());
+            return chars[index < gapStart ? index : index + gapEnd - gapStart];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            Objects.checkFromToIndex(start, end, length());
+            return new StringBuilder(end - start).append(this, start, end).toString();
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder(length())
+                    .append(chars, 0, gapStart)
+                    .append(chars, gapEnd, chars.length - gapEnd)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.sevcik.hypherator;
+
+/**
+ * A text together with its hyphenation points, as emitted by {@link HyphenationProcessor}.
+ *
+ * @param text the text as it was received
+ * @param breaks the breaks of all words of the text, offsets relative to {@code text}
+ */
+public record HyphenatedText(CharSequence text, DocumentBreaks breaks) {
+}
@@ -0,0 +1,152 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hyphenation points of a batch of words, in flat primitive arrays.
+ * <p>
+ * The breaks of word {@code w} are the entries {@code offsets()[w]} (inclusive) to {@code offsets()[w + 1]} (exclusive)
+ * of {@link #positions()} and {@link #priorities()}, ordered by position. Like in {@link BreakSet}, a position is
+ * the number of characters in front of the break, and higher (odd) priorities are better breaks.
+ * <br><br>
+ * A batch is created by {@link Hypherator#hyphenate(String, List)}, which looks up the dictionary once and hyphenates
+ * every distinct word of the batch only once. Instances are immutable; the arrays are returned without copying
+ * and must not be modified.
+ */
+public final class HyphenationBatch {
+    private final int[] offsets;
+    private final int[] positions;
+    private final byte[] priorities;
+    private final HyphenDict.BreakRule[] rules;
+
+    private HyphenationBatch(int[] offsets, int[] positions, byte[] priorities, HyphenDict.BreakRule[] rules) {
+        this.offsets = offsets;
+        this.positions = positions;
+        this.priorities = priorities;
+        this.rules = rules;
+    }
+
+    /**
+     * Hyphenates all {@code words} with one dictionary, reusing the breaks of words seen before in the batch.
+     */
+    static HyphenationBatch of(HyphenDict dict, List<? extends CharSequence> words) {
+        Hyphenate hyphenate = new HyphenateImpl();
+        BreakSet breaks = new BreakSet();
+        Map<String, Integer> firstOccurrence = new HashMap<>();
+
+        int[] offsets = new int[words.size() + 1];
+        int[] positions = new int[Math.max(words.size() * 2, 16)];
+        byte[] priorities = new byte[positions.length];
+        HyphenDict.BreakRule[] rules = null;
+        int size = 0;
+
+        for (int w = 0; w < words.size(); w++) {
+            offsets[w] = size;
+            String word = words.get(w).toString();
+            Integer previous = firstOccurrence.putIfAbsent(word, w);
+
+            int count;
+            if (previous != null) {
+                count = offsets[previous + 1] - offsets[previous];
+            } else {
+                hyphenate.hyphenate(dict, word, breaks);
+                count = breaks.size();
+            }
+            if (size + count > positions.length) {
+                int capacity = Math.max(positions.length * 2, size + count);
+                positions = Arrays.copyOf(positions, capacity);
+                priorities = Arrays.copyOf(priorities, capacity);
+                if (rules != null)
+                    rules = Arrays.copyOf(rules, capacity);
+            }
+
+            if (previous != null) {
+                int start = offsets[previous];
+                System.arraycopy(positions, start, positions, size, count);
+                System.arraycopy(priorities, start, priorities, size, count);
+                if (rules != null)
+                    System.arraycopy(rules, start, rules, size, count);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    positions[size + i] = breaks.position(i);
+                    priorities[size + i] = (byte) breaks.priority(i);
+                    HyphenDict.BreakRule rule = breaks.breakRule(i);
+                    if (rule != null) {
+                        if (rules == null)
+                            rules = new HyphenDict.BreakRule[positions.length];
+                        rules[size + i] = rule;
+                    }
+                }
+            }
+            size += count;
+        }
+        offsets[words.size()] = size;
+
+        return new HyphenationBatch(offsets, Arrays.copyOf(positions, size), Arrays.copyOf(priorities, size),
+                rules == null ? null : Arrays.copyOf(rules, size));
+    }
+
+    /**
+     * Returns the number of words in the batch.
+     */
+    public int wordCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the total number of breaks of all words.
+     */
+    public int breakCount() {
+        return positions.length;
+    }
+
+    /**
+     * Returns the index of the first break of each word, followed by the total number of breaks;
+     * the array has {@link #wordCount()} + 1 entries.
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the positions of all breaks.
+     */
+    public int[] positions() {
+        return positions;
+    }
+
+    /**
+     * Returns the priorities of all breaks.
+     */
+    public byte[] priorities() {
+        return priorities;
+    }
+
+    /**
+     * Returns {@code true} if applying the {@code index}-th break changes the characters around it,
+     * see {@link BreakSet#hasReplacement(int)}.
+     */
+    public boolean hasReplacement(int index) {
+        checkIndex(index);
+        return rules != null && rules[index] != null && rules[index].replacement != null;
+    }
+
+    /**
+     * Returns the {@code index}-th break as an opaque {@link PotentialBreak} handle, to be applied
+     * with {@link HyphenationIterator#applyBreak(PotentialBreak)}. A new handle is created on every call.
+     */
+    public PotentialBreak potentialBreak(int index) {
+        checkIndex(index);
+        return new PotentialBreakImpl(positions[index], priorities[index], rules == null ? null : rules[index]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= positions.length)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + positions.length);
+    }
+}
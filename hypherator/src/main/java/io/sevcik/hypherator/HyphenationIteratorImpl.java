@@ -2,20 +2,29 @@ package io.sevcik.hypherator;
 
 import io.sevcik.hypherator.dto.Pair;
 import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordSplit;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
+/**
+ * Iterator over the breaks of one word at a time; a stateful view over a thread-safe {@link Hyphenator}.
+ */
 public class HyphenationIteratorImpl implements HyphenationIterator {
     private String word = null;
     private int priorityFilter = 1;
-    private final HyphenDict dict;
-    private final Hyphenate hyphenate;
+    private final Hyphenator hyphenator;
     private List<PotentialBreak> breaks = null;
     private int index = -1; // -1 indicates not initialized
 
     protected HyphenationIteratorImpl(HyphenDict dict) {
-        this.dict = dict;
-        this.hyphenate = new HyphenateImpl();
+        this(dict.getHyphenator());
+    }
+
+    HyphenationIteratorImpl(Hyphenator hyphenator) {
+        this.hyphenator = hyphenator;
     }
     
     @Override
@@ -26,16 +35,30 @@ public class HyphenationIteratorImpl implements HyphenationIterator {
 
     @Override
     public String getHyphen() {
-        return dict.hyphen;
+        return hyphenator.getHyphen();
     }
 
     @Override
     public void setWord(String word) {
         this.word = word;
-        this.breaks = hyphenate.hyphenate(dict, word);
+        this.breaks = hyphenator.hyphenate(word);
         resetState();
     }
 
+    /**
+     * Leaves the state of this iterator untouched, see {@link Hyphenator#hyphenate(CharSequence, BreakSet)}.
+     */
+    public void hyphenate(CharSequence word, BreakSet result) {
+        hyphenator.hyphenate(word, result);
+    }
+
+    /**
+     * Leaves the state of this iterator untouched, see {@link Hyphenator#hyphenate(char[], int, int, BreakSet)}.
+     */
+    public void hyphenate(char[] word, int offset, int length, BreakSet result) {
+        hyphenator.hyphenate(word, offset, length, result);
+    }
+
     @Override
     public PotentialBreak first() {
         if (word == null) throw new IllegalStateException("No word has been set");
@@ -61,16 +84,30 @@ public class HyphenationIteratorImpl implements HyphenationIterator {
     
     @Override
     public Pair<String, String> applyBreak(PotentialBreak breakRule) {
-        return hyphenate.applyBreak(word, breakRule);
+        return hyphenator.applyBreak(word, breakRule);
+    }
+
+    /**
+     * Leaves the state of this iterator untouched, see {@link Hyphenator#applyBreak(CharSequence, int, int, PotentialBreak, Appendable, Appendable)}.
+     */
+    public void applyBreak(CharSequence word, int start, int end, PotentialBreak breakRule, Appendable left, Appendable right) throws IOException {
+        hyphenator.applyBreak(word, start, end, breakRule, left, right);
+    }
+
+    /**
+     * Leaves the state of this iterator untouched, see {@link Hyphenator#applyBreak(char[], int, int, PotentialBreak, StringBuilder, StringBuilder)}.
+     */
+    public void applyBreak(char[] word, int offset, int length, PotentialBreak breakRule, StringBuilder left, StringBuilder right) {
+        hyphenator.applyBreak(word, offset, length, breakRule, left, right);
     }
 
     @Override
     public HyphenationIterator getInstanceOnRightPart(PotentialBreak breakRule) {
         if (breaks == null) throw new IllegalStateException("No word has been set");
         if (breakRule == null) throw new IllegalArgumentException("Break rule cannot be null");
-        var parts = hyphenate.applyBreak(word, breakRule);
-        var newPotentialBreaksList = hyphenate.getFurtherHyphenations(dict, breaks, breakRule, parts.getSecond());
-        var newIterator = new HyphenationIteratorImpl(dict);
+        var parts = hyphenator.applyBreak(word, breakRule);
+        var newPotentialBreaksList = hyphenator.hyphenateRightPart(breaks, breakRule, parts.getSecond());
+        var newIterator = new HyphenationIteratorImpl(hyphenator);
 
         newIterator.priorityFilter = priorityFilter;
         newIterator.word = parts.getSecond();
@@ -80,6 +117,33 @@ public class HyphenationIteratorImpl implements HyphenationIterator {
 
     }
 
+    /**
+     * Splits the current word over lines of at most the given numbers of characters in one pass, using the breaks
+     * included at the current urgency. See {@link Hyphenator#split(String, List, int...)}.
+     */
+    public WordSplit split(int... lineLengths) {
+        if (breaks == null) throw new IllegalStateException("No word has been set");
+        return hyphenator.split(word, includedBreaks(), lineLengths);
+    }
+
+    /**
+     * Splits the current word over lines of the given widths in one pass, using the breaks included at the current
+     * urgency. See {@link Hyphenator#split(String, List, IntToDoubleFunction, ParagraphBreaker.TextMeasure)}.
+     */
+    public WordSplit split(IntToDoubleFunction lineWidths, ParagraphBreaker.TextMeasure measure) {
+        if (breaks == null) throw new IllegalStateException("No word has been set");
+        return hyphenator.split(word, includedBreaks(), lineWidths, measure);
+    }
+
+    private List<PotentialBreak> includedBreaks() {
+        List<PotentialBreak> included = new ArrayList<>(breaks.size());
+        for (PotentialBreak potentialBreak : breaks) {
+            if (((PotentialBreakImpl) potentialBreak).priority() >= priorityFilter)
+                included.add(potentialBreak);
+        }
+        return included;
+    }
+
     private void resetState() {
         index = -1;
     }
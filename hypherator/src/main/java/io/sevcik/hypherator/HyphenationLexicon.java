@@ -0,0 +1,189 @@
+package io.sevcik.hypherator;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Precomputed hyphenation of the most frequent words of a dictionary.
+ * <p>
+ * The lexicon is a sorted table: all words are concatenated in one {@code char[]} in {@link String#compareTo} order,
+ * their breaks packed as {@code position << 4 | priority} in one {@code short[]}. A lookup is a binary search without
+ * allocation, so frequent words are answered without running the pattern engine - also before the JIT warms it up.
+ * Words with non-standard (replacement) breaks are never stored; they always go through the engine.
+ * <p>
+ * The lexicon records the {@link DictionaryImage#checksum(HyphenDict) checksum} of the patterns it was built with,
+ * so that a lexicon left next to a patched dictionary can be told apart, see {@link #matches(HyphenDict)}.
+ * <p>
+ * Binary layout (big endian): magic {@code "HYLX"}, version, dictionary checksum (long), word count, char count,
+ * break count, word offsets ({@code count + 1} ints), break offsets ({@code count + 1} ints), chars, breaks.
+ * Version 1 has no checksum.
+ */
+final class HyphenationLexicon {
+    static final String WORD_LIST_EXTENSION = ".words";
+    static final String FILE_EXTENSION = ".lex";
+
+    private static final int MAGIC = 0x48594C58; // "HYLX"
+    private static final int VERSION = 2;
+    private static final long UNKNOWN_CHECKSUM = -1;
+    private static final int MAX_POSITION = (1 << 12) - 1;
+
+    private final long dictionaryChecksum;
+    private final int[] wordOffsets;
+    private final char[] chars;
+    private final int[] breakOffsets;
+    private final short[] breaks;
+
+    private HyphenationLexicon(long dictionaryChecksum, int[] wordOffsets, char[] chars, int[] breakOffsets, short[] breaks) {
+        this.dictionaryChecksum = dictionaryChecksum;
+        this.wordOffsets = wordOffsets;
+        this.chars = chars;
+        this.breakOffsets = breakOffsets;
+        this.breaks = breaks;
+    }
+
+    /**
+     * Appends the precomputed breaks of {@code word} to {@code result}.
+     *
+     * @return {@code false} if the word is not in the lexicon, in which case {@code result} is left untouched
+     */
+    boolean lookup(CharSequence word, BreakSet result) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(mid, word);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                for (int i = breakOffsets[mid]; i < breakOffsets[mid + 1]; i++) {
+                    result.add((breaks[i] & 0xFFFF) >>> 4, breaks[i] & 0xF, null);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether the lexicon was built with the patterns of {@code dict}. A lexicon of version 1 never matches.
+     */
+    boolean matches(HyphenDict dict) throws IOException {
+        return dictionaryChecksum != UNKNOWN_CHECKSUM && dictionaryChecksum == DictionaryImage.checksum(dict);
+    }
+
+    int size() {
+        return wordOffsets.length - 1;
+    }
+
+    long footprint() {
+        return 16 + 8 + 4 * 4 + 3 * 16 + 4L * wordOffsets.length + 2L * chars.length + 4L * breakOffsets.length + 2L * breaks.length;
+    }
+
+    private int compare(int entry, CharSequence word) {
+        int start = wordOffsets[entry];
+        int length = wordOffsets[entry + 1] - start;
+        int common = Math.min(length, word.length());
+        for (int i = 0; i < common; i++) {
+            int difference = chars[start + i] - word.charAt(i);
+            if (difference != 0)
+                return difference;
+        }
+        return length - word.length();
+    }
+
+    /**
+     * Hyphenates {@code words} with the pattern engine and stores the results.
+     */
+    static HyphenationLexicon build(HyphenDict dict, Collection<String> words) throws IOException {
+        Hyphenate hyphenate = new HyphenateImpl();
+        BreakSet breakSet = new BreakSet();
+        TreeSet<String> sorted = new TreeSet<>(words);
+
+        int[] wordOffsets = new int[sorted.size() + 1];
+        int[] breakOffsets = new int[sorted.size() + 1];
+        StringBuilder chars = new StringBuilder();
+        short[] breaks = new short[64];
+        int breakCount = 0;
+        int count = 0;
+
+        for (String word : sorted) {
+            if (word.isEmpty() || word.length() > MAX_POSITION)
+                continue;
+            hyphenate.hyphenate(dict, word, breakSet);
+            boolean standard = true;
+            for (int i = 0; i < breakSet.size(); i++) {
+                standard &= !breakSet.hasReplacement(i);
+            }
+            if (!standard)
+                continue;
+
+            if (breakCount + breakSet.size() > breaks.length) {
+                breaks = Arrays.copyOf(breaks, Math.max(breaks.length * 2, breakCount + breakSet.size()));
+            }
+            for (int i = 0; i < breakSet.size(); i++) {
+                breaks[breakCount++] = (short) (breakSet.position(i) << 4 | breakSet.priority(i));
+            }
+            chars.append(word);
+            count++;
+            wordOffsets[count] = chars.length();
+            breakOffsets[count] = breakCount;
+        }
+
+        char[] charArray = new char[chars.length()];
+        chars.getChars(0, chars.length(), charArray, 0);
+        return new HyphenationLexicon(DictionaryImage.checksum(dict), Arrays.copyOf(wordOffsets, count + 1), charArray,
+                Arrays.copyOf(breakOffsets, count + 1), Arrays.copyOf(breaks, breakCount));
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(dictionaryChecksum);
+        out.writeInt(size());
+        out.writeInt(chars.length);
+        out.writeInt(breaks.length);
+        for (int offset : wordOffsets)
+            out.writeInt(offset);
+        for (int offset : breakOffsets)
+            out.writeInt(offset);
+        for (char c : chars)
+            out.writeChar(c);
+        for (short b : breaks)
+            out.writeShort(b);
+        out.flush();
+    }
+
+    static HyphenationLexicon readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a hyphenation lexicon");
+        int version = in.readInt();
+        if (version != 1 && version != VERSION)
+            throw new IOException("Unsupported hyphenation lexicon version: " + version);
+        long dictionaryChecksum = version == 1 ? UNKNOWN_CHECKSUM : in.readLong();
+
+        int count = in.readInt();
+        int[] wordOffsets = new int[count + 1];
+        int[] breakOffsets = new int[count + 1];
+        char[] chars = new char[in.readInt()];
+        short[] breaks = new short[in.readInt()];
+        for (int i = 0; i <= count; i++)
+            wordOffsets[i] = in.readInt();
+        for (int i = 0; i <= count; i++)
+            breakOffsets[i] = in.readInt();
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = in.readChar();
+        for (int i = 0; i < breaks.length; i++)
+            breaks[i] = in.readShort();
+        return new HyphenationLexicon(dictionaryChecksum, wordOffsets, chars, breakOffsets, breaks);
+    }
+}
@@ -0,0 +1,321 @@
+package io.sevcik.hypherator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * {@link Flow.Processor} stage hyphenating words or chunks of text of one locale.
+ * <p>
+ * Every received text is emitted as a {@link HyphenatedText}, in the order received. Texts are hyphenated
+ * in batches of {@code batchSize} items on an executor, with at most {@code maxConcurrency} batches running at a time.
+ * The stage requests from upstream only what fits into a window of {@code batchSize * maxConcurrency} items
+ * not yet delivered downstream, so a slow subscriber slows the upstream instead of letting work queue up in memory.
+ * <br><br>
+ * The dictionary is taken from the {@link Hypherator} dictionary registry for every batch, so reloaded dictionaries are
+ * picked up and evicted ones are loaded again. The stage supports a single subscriber.
+ * Create it with {@link Hypherator#newProcessor(String, Executor, int, int)}.
+ */
+public final class HyphenationProcessor implements Flow.Processor<CharSequence, HyphenatedText> {
+    private final Supplier<HyphenDict> dictionary;
+    private final int urgency;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxConcurrency;
+    private final int window;
+
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super HyphenatedText> downstream;
+    private boolean upstreamDone = false;
+    private Throwable failure = null;
+    private boolean terminated = false;
+    private boolean cancelled = false;
+
+    private final ArrayDeque<CharSequence> pending = new ArrayDeque<>();
+    private final Map<Long, List<HyphenatedText>> completed = new HashMap<>();
+    private final ArrayDeque<HyphenatedText> ready = new ArrayDeque<>();
+    private long nextBatch = 0;
+    private long nextCompleted = 0;
+    private int runningBatches = 0;
+    private long demand = 0;
+    private int outstanding = 0;    // items requested from upstream and not delivered downstream yet
+    private int toRequest = 0;
+
+    private boolean draining = false;
+    private boolean missed = false;
+
+    HyphenationProcessor(Supplier<HyphenDict> dictionary, int urgency, Executor executor, int batchSize, int maxConcurrency) {
+        if (batchSize <= 0 || maxConcurrency <= 0)
+            throw new IllegalArgumentException("Batch size and concurrency must be positive: " + batchSize + ", " + maxConcurrency);
+        this.dictionary = dictionary;
+        this.urgency = urgency;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxConcurrency = maxConcurrency;
+        this.window = (int) Math.min(Integer.MAX_VALUE, (long) batchSize * maxConcurrency);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super HyphenatedText> subscriber) {
+        boolean accepted;
+        synchronized (this) {
+            accepted = downstream == null;
+            if (accepted)
+                downstream = subscriber;
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("HyphenationProcessor supports a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                Flow.Subscription toCancel = null;
+                synchronized (HyphenationProcessor.this) {
+                    if (n <= 0) {
+                        if (failure == null)
+                            failure = new IllegalArgumentException("Non-positive request: " + n);
+                        toCancel = detachUpstream();
+                    } else {
+                        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    }
+                }
+                HyphenationProcessor.cancel(toCancel);
+                drain();
+            }
+
+            @Override
+            public void cancel() {
+                Flow.Subscription toCancel;
+                synchronized (HyphenationProcessor.this) {
+                    cancelled = true;
+                    toCancel = detachUpstream();
+                    pending.clear();
+                    completed.clear();
+                    ready.clear();
+                }
+                HyphenationProcessor.cancel(toCancel);
+            }
+        });
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        boolean accepted;
+        synchronized (this) {
+            accepted = upstream == null && !cancelled && failure == null;
+            if (accepted) {
+                upstream = subscription;
+                outstanding = window;
+            }
+        }
+        if (!accepted) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(CharSequence item) {
+        synchronized (this) {
+            if (cancelled || failure != null)
+                return;
+            pending.add(item);
+        }
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (failure == null)
+                failure = throwable;
+            upstreamDone = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            upstreamDone = true;
+        }
+        schedule();
+        drain();
+    }
+
+    /**
+     * Starts batches while there is input and a free slot. A partial batch is started only if nothing is running
+     * or no more input will come, so that a slow upstream does not delay items indefinitely.
+     */
+    private void schedule() {
+        while (true) {
+            List<CharSequence> batch;
+            long sequence;
+            synchronized (this) {
+                if (cancelled || failure != null || pending.isEmpty() || runningBatches >= maxConcurrency)
+                    return;
+                if (pending.size() < batchSize && runningBatches > 0 && !upstreamDone)
+                    return;
+                batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                while (batch.size() < batchSize && !pending.isEmpty())
+                    batch.add(pending.poll());
+                sequence = nextBatch++;
+                runningBatches++;
+            }
+            try {
+                executor.execute(() -> hyphenate(sequence, batch));
+            } catch (RejectedExecutionException e) {
+                Flow.Subscription toCancel;
+                synchronized (this) {
+                    runningBatches--;
+                    if (failure == null)
+                        failure = e;
+                    toCancel = detachUpstream();
+                }
+                cancel(toCancel);
+                drain();
+                return;
+            }
+        }
+    }
+
+    private void hyphenate(long sequence, List<CharSequence> batch) {
+        List<HyphenatedText> results = new ArrayList<>(batch.size());
+        Throwable error = null;
+        try {
+            HyphenDict dict = dictionary.get();
+            if (dict == null)
+                throw new IllegalStateException("No dictionary available");
+            for (CharSequence text : batch) {
+                results.add(new HyphenatedText(text, DocumentBreaks.compute(dict, text, urgency)));
+            }
+        } catch (Throwable e) {
+            // errors included, the batch must still be accounted for or the stream never terminates
+            error = e;
+        }
+
+        Flow.Subscription toCancel = null;
+        synchronized (this) {
+            runningBatches--;
+            if (error != null) {
+                if (failure == null)
+                    failure = error;
+                toCancel = detachUpstream();
+            } else if (!cancelled) {
+                completed.put(sequence, results);
+                List<HyphenatedText> next;
+                while ((next = completed.remove(nextCompleted)) != null) {
+                    ready.addAll(next);
+                    nextCompleted++;
+                }
+            }
+        }
+        cancel(toCancel);
+        drain();
+        schedule();
+    }
+
+    /**
+     * Delivers ready results downstream as far as demanded, in a single thread at a time, and signals termination.
+     * Subscribers are called without holding the lock.
+     */
+    private void drain() {
+        synchronized (this) {
+            if (draining) {
+                missed = true;
+                return;
+            }
+            draining = true;
+        }
+        while (true) {
+            Flow.Subscriber<? super HyphenatedText> subscriber;
+            HyphenatedText next = null;
+            Throwable error = null;
+            boolean complete = false;
+            int request = 0;
+            Flow.Subscription subscription;
+            synchronized (this) {
+                subscriber = downstream;
+                subscription = upstream;
+                if (subscriber == null || cancelled || terminated) {
+                    draining = false;
+                    return;
+                }
+                if (failure != null) {
+                    error = failure;
+                    terminated = true;
+                } else if (demand > 0 && !ready.isEmpty()) {
+                    next = ready.poll();
+                    demand--;
+                    outstanding--;
+                    if (!upstreamDone) {
+                        // top up the window in steps of a batch
+                        toRequest++;
+                        if (toRequest >= batchSize || outstanding == 0) {
+                            request = toRequest;
+                            outstanding += request;
+                            toRequest = 0;
+                        }
+                    }
+                } else if (upstreamDone && ready.isEmpty() && pending.isEmpty() && runningBatches == 0 && completed.isEmpty()) {
+                    complete = true;
+                    terminated = true;
+                } else {
+                    if (!missed) {
+                        draining = false;
+                        return;
+                    }
+                    missed = false;
+                    continue;
+                }
+            }
+
+            if (error != null) {
+                subscriber.onError(error);
+                return;
+            }
+            if (complete) {
+                subscriber.onComplete();
+                return;
+            }
+            subscriber.onNext(next);
+            if (request > 0 && subscription != null)
+                subscription.request(request);
+        }
+    }
+
+    /**
+     * Marks the upstream as done and returns its subscription if it still has to be cancelled. Called under the lock;
+     * the caller cancels the subscription after releasing it, see {@link #cancel(Flow.Subscription)}.
+     */
+    private Flow.Subscription detachUpstream() {
+        if (upstream != null && !upstreamDone) {
+            upstreamDone = true;
+            return upstream;
+        }
+        return null;
+    }
+
+    private static void cancel(Flow.Subscription subscription) {
+        if (subscription != null)
+            subscription.cancel();
+    }
+}
@@ -0,0 +1,126 @@
+package io.sevcik.hypherator;
+
+/**
+ * Per-thread scratch buffers of {@link HyphenateImpl}.
+ * <p>
+ * Matching a word works on a stack of frames - one per recursion into compound segments and
+ * dictionary levels. Each frame holds the dotted, lowercased text and primitive priority / rule
+ * arrays, which are reused from word to word, so hyphenating a word in steady state allocates
+ * nothing but the result. Frames grown beyond {@link #MAX_RETAINED_LENGTH} are not kept, so one
+ * pathological input does not pin large buffers to the thread forever.
+ */
+final class HyphenationWorkspace {
+    static final int MAX_RETAINED_LENGTH = 256;
+    private static final ThreadLocal<HyphenationWorkspace> WORKSPACE = ThreadLocal.withInitial(HyphenationWorkspace::new);
+
+    private Frame[] frames = new Frame[4];
+    private long[] breakMask = new long[(MAX_RETAINED_LENGTH + 63) / 64];
+    private final BreakSet breaks = new BreakSet();
+    private final SegmentCache.Key segmentKey = new SegmentCache.Key();
+    private final CharArrayWindow window = new CharArrayWindow();
+
+    static HyphenationWorkspace get() {
+        return WORKSPACE.get();
+    }
+
+    /**
+     * Returns the frame for the given recursion depth, able to hold {@code length} characters.
+     * The content of the returned frame is undefined.
+     */
+    Frame frame(int depth, int length) {
+        if (length > MAX_RETAINED_LENGTH) {
+            return new Frame(length);
+        }
+        if (depth >= frames.length) {
+            Frame[] grown = new Frame[Math.max(frames.length * 2, depth + 1)];
+            System.arraycopy(frames, 0, grown, 0, frames.length);
+            frames = grown;
+        }
+        Frame frame = frames[depth];
+        if (frame == null || frame.text.length < length) {
+            frame = new Frame(Math.max(length, 32));
+            frames[depth] = frame;
+        }
+        return frame;
+    }
+
+    /**
+     * Returns a break set for intermediate results, its content is undefined.
+     */
+    BreakSet breaks() {
+        return breaks;
+    }
+
+    /**
+     * Returns the reusable probe for segment cache lookups.
+     */
+    SegmentCache.Key segmentKey() {
+        return segmentKey;
+    }
+
+    /**
+     * Returns the reusable view of a caller's char array, set to the given range.
+     */
+    CharArrayWindow window(char[] text, int offset, int length) {
+        return window.set(text, offset, length);
+    }
+
+    /**
+     * Returns a cleared bit set able to hold the given number of break positions.
+     */
+    long[] breakMask(int positions) {
+        int words = (positions + 63) >>> 6;
+        if (words > breakMask.length) {
+            return new long[words];
+        }
+        for (int i = 0; i < words; i++) {
+            breakMask[i] = 0;
+        }
+        return breakMask;
+    }
+
+    static final class Frame {
+        final char[] text;
+        final byte[] priorities;
+        final HyphenDict.BreakRule[] rules;
+        int length;
+
+        private Frame(int capacity) {
+            text = new char[capacity];
+            priorities = new byte[capacity];
+            rules = new HyphenDict.BreakRule[capacity];
+        }
+
+        /**
+         * Sets the content to {@code word} enclosed in dots, lowercased and with digits replaced by dots, and clears all breaks.
+         */
+        void load(CharSequence word, int start, int end) {
+            length = end - start + 2;
+            text[0] = '.';
+            for (int i = start; i < end; i++) {
+                char c = word.charAt(i);
+                text[i - start + 1] = c >= '0' && c <= '9' ? '.' : Character.toLowerCase(c);
+            }
+            text[length - 1] = '.';
+            clearBreaks();
+        }
+
+        /**
+         * Same as {@link #load(CharSequence, int, int)} for a slice of another frame's text, which is already normalized.
+         */
+        void load(char[] source, int start, int end) {
+            length = end - start + 2;
+            text[0] = '.';
+            System.arraycopy(source, start, text, 1, end - start);
+            text[length - 1] = '.';
+            clearBreaks();
+        }
+
+        private void clearBreaks() {
+            for (int i = 0; i < length; i++) {
+                priorities[i] = 0;
+                rules[i] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.Pair;
+import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordSplit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Immutable, thread-safe hyphenator of one locale.
+ * <p>
+ * Unlike a {@link HyphenationIterator}, a {@code Hyphenator} keeps no per-word state: the word and the urgency
+ * are passed to every call and results are immutable, so one instance can be shared by all threads of an application.
+ * Use {@link Hypherator#getHyphenator(String)} to obtain it; every dictionary has a single instance.
+ * A {@link HyphenationIterator} is a view over a {@code Hyphenator}, see {@link #iterator()}.
+ * <br><br>
+ * Urgency follows {@link HyphenationIterator#setUrgency(int)}: a break is included at urgency {@code u}
+ * when its priority is at least {@code 10 - u}; {@link BreakSet#MAX_URGENCY} includes every break.
+ */
+public final class Hyphenator {
+    private static final Hyphenate HYPHENATE = new HyphenateImpl();
+
+    private final HyphenDict dict;
+
+    Hyphenator(HyphenDict dict) {
+        this.dict = dict;
+    }
+
+    /**
+     * Returns the hyphenation points of the word included at the given urgency, ordered by position.
+     *
+     * @param word the word to hyphenate
+     * @param urgency the urgency level
+     * @return an unmodifiable list of breaks
+     */
+    public List<PotentialBreak> hyphenate(String word, int urgency) {
+        List<PotentialBreak> breaks = HYPHENATE.hyphenate(dict, word);
+        int minimumPriority = 10 - urgency;
+        List<PotentialBreak> included = null;
+        for (int i = 0; i < breaks.size(); i++) {
+            boolean include = ((PotentialBreakImpl) breaks.get(i)).priority() >= minimumPriority;
+            if (!include && included == null) {
+                included = new ArrayList<>(breaks.subList(0, i));
+            } else if (include && included != null) {
+                included.add(breaks.get(i));
+            }
+        }
+        return Collections.unmodifiableList(included != null ? included : breaks);
+    }
+
+    /**
+     * Returns all hyphenation points of the word, see {@link #hyphenate(String, int)}.
+     */
+    public List<PotentialBreak> hyphenate(String word) {
+        return hyphenate(word, BreakSet.MAX_URGENCY);
+    }
+
+    /**
+     * Hyphenates the given word into the reusable {@code result}.
+     * Meant for bulk processing, as no object is allocated per break.
+     *
+     * @param word the word to hyphenate
+     * @param result the set to fill, its previous content is discarded
+     */
+    public void hyphenate(CharSequence word, BreakSet result) {
+        HYPHENATE.hyphenate(dict, word, result);
+    }
+
+    /**
+     * Hyphenates the word {@code word[offset, offset + length)} into the reusable {@code result}, without copying it.
+     * Positions in {@code result} are relative to {@code offset}.
+     *
+     * @param word the buffer holding the word
+     * @param offset the index of the first character of the word
+     * @param length the length of the word
+     * @param result the set to fill, its previous content is discarded
+     */
+    public void hyphenate(char[] word, int offset, int length, BreakSet result) {
+        HYPHENATE.hyphenate(dict, word, offset, length, result);
+    }
+
+    /**
+     * Applies a hyphenation break of the word.
+     *
+     * @param word the word the break was found for
+     * @param breakRule the hyphenation point to apply
+     * @return a new pair containing the two parts of the split word
+     */
+    public Pair<String, String> applyBreak(String word, PotentialBreak breakRule) {
+        return HYPHENATE.applyBreak(word, breakRule);
+    }
+
+    /**
+     * Applies a hyphenation break found by {@link #hyphenate(CharSequence, BreakSet)} to the word {@code word[start, end)},
+     * appending the two parts to {@code left} and {@code right} without intermediate strings.
+     *
+     * @param word the text holding the word
+     * @param start the index of the first character of the word
+     * @param end the index after the last character of the word
+     * @param breakRule the hyphenation point to apply
+     * @param left receives the text before the break
+     * @param right receives the text after the break
+     * @throws IOException if appending fails
+     */
+    public void applyBreak(CharSequence word, int start, int end, PotentialBreak breakRule, Appendable left, Appendable right) throws IOException {
+        HYPHENATE.applyBreak(word, start, end, breakRule, left, right);
+    }
+
+    /**
+     * Applies a hyphenation break found by {@link #hyphenate(char[], int, int, BreakSet)} to the word
+     * {@code word[offset, offset + length)}, appending the two parts to {@code left} and {@code right}.
+     *
+     * @param word the buffer holding the word
+     * @param offset the index of the first character of the word
+     * @param length the length of the word
+     * @param breakRule the hyphenation point to apply
+     * @param left receives the text before the break
+     * @param right receives the text after the break
+     */
+    public void applyBreak(char[] word, int offset, int length, PotentialBreak breakRule, StringBuilder left, StringBuilder right) {
+        HYPHENATE.applyBreak(word, offset, length, breakRule, left, right);
+    }
+
+    /**
+     * Returns the hyphenation points of the right part of a word split at {@code breakRule}.
+     *
+     * @param breaks all breaks of the word, as returned by {@link #hyphenate(String, int)}
+     * @param breakRule the break the word was split at
+     * @param rightPart the right part, as returned by {@link #applyBreak(String, PotentialBreak)}
+     * @return an unmodifiable list of breaks, positions relative to the right part
+     */
+    public List<PotentialBreak> hyphenateRightPart(List<PotentialBreak> breaks, PotentialBreak breakRule, String rightPart) {
+        return Collections.unmodifiableList(HYPHENATE.getFurtherHyphenations(dict, breaks, breakRule, rightPart));
+    }
+
+    /**
+     * Splits the word over lines of at most the given numbers of characters, hyphen included, see
+     * {@link #split(String, List, IntToDoubleFunction, ParagraphBreaker.TextMeasure)}. The last length applies to
+     * all further lines.
+     *
+     * @throws IllegalArgumentException if no length is given
+     */
+    public WordSplit split(String word, List<PotentialBreak> breaks, int... lineLengths) {
+        if (lineLengths.length == 0)
+            throw new IllegalArgumentException("No line lengths given");
+        return split(word, breaks, line -> lineLengths[Math.min(line, lineLengths.length - 1)], (text, start, end) -> end - start);
+    }
+
+    /**
+     * Splits the word over lines in a single pass, instead of applying a break and hyphenating the right part again
+     * for every line. Each line takes the furthest break whose fragment, hyphen included, fits the width of the line;
+     * a line that no break fits takes the nearest one. Breaks applied with a replacement shift the positions of the
+     * breaks after them, which is taken into account.
+     *
+     * @param word the word
+     * @param breaks the breaks to choose from, as returned by {@link #hyphenate(String, int)}
+     * @param lineWidths the width available on each line, by line index starting at 0
+     * @param measure measures the width of the fragments
+     * @return the fragments of the word, one per line, and the applied breaks
+     */
+    public WordSplit split(String word, List<PotentialBreak> breaks, IntToDoubleFunction lineWidths, ParagraphBreaker.TextMeasure measure) {
+        return HYPHENATE.split(dict, word, breaks, lineWidths, measure);
+    }
+
+    /**
+     * Hyphenates a whole document on the common {@link ForkJoinPool} in chunks of {@link DocumentBreaks#DEFAULT_CHUNK_SIZE}
+     * characters, see {@link #hyphenateDocument(CharSequence, int, ForkJoinPool, int)}.
+     */
+    public DocumentBreaks hyphenateDocument(CharSequence text, int urgency) {
+        return hyphenateDocument(text, urgency, ForkJoinPool.commonPool(), DocumentBreaks.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Hyphenates a whole document in parallel. The text is cut at whitespace into chunks of about {@code chunkSize}
+     * characters, which are hyphenated as tasks of {@code pool}; the breaks are returned in text order. The parallelism
+     * is that of the pool. The text must not change while it is hyphenated.
+     *
+     * @param text the document
+     * @param urgency the urgency level
+     * @param pool the pool running the chunks
+     * @param chunkSize the number of characters per chunk; a chunk is extended to the next whitespace
+     * @return the breaks of all words of the document
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public DocumentBreaks hyphenateDocument(CharSequence text, int urgency, ForkJoinPool pool, int chunkSize) {
+        return DocumentBreaks.compute(dict, text, urgency, pool, chunkSize);
+    }
+
+    /**
+     * Hyphenates a document for editing, see {@link HyphenatedDocument}. The document is hyphenated on the common
+     * {@link ForkJoinPool} as by {@link #hyphenateDocument(CharSequence, int)} and keeps a copy of {@code text}.
+     *
+     * @param text the initial text of the document
+     * @param urgency the urgency level
+     * @return the hyphenated document
+     */
+    public HyphenatedDocument newDocument(CharSequence text, int urgency) {
+        return new HyphenatedDocument(dict, text, urgency);
+    }
+
+    /**
+     * Get the default hyphen sign for the given language
+     */
+    public String getHyphen() {
+        return dict.hyphen;
+    }
+
+    /**
+     * Returns a new paragraph breaker of this locale measuring text with {@code measure}. Unlike the hyphenator,
+     * the breaker is not thread-safe.
+     */
+    public ParagraphBreaker newParagraphBreaker(ParagraphBreaker.TextMeasure measure) {
+        return new ParagraphBreaker(dict, measure);
+    }
+
+    /**
+     * Returns a new iterator over the breaks of words, backed by this hyphenator. Unlike the hyphenator,
+     * the iterator is not thread-safe.
+     */
+    public HyphenationIterator iterator() {
+        return new HyphenationIteratorImpl(this);
+    }
+}
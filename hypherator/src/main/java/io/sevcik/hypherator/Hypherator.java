@@ -1,25 +1,41 @@
 package io.sevcik.hypherator;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import io.sevcik.hypherator.dto.DictionaryEntry;
+import io.sevcik.hypherator.dto.ResidentDictionaryStats;
+import io.sevcik.hypherator.dto.WordCacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 /**
  * Main entry point for working with the hyphenation package.
  * <p>
  * This class provides global, thread-safe access to all supported locale dictionaries.
- * Dictionaries are loaded once per classloader and always shared between all instances
+ * Only the index of available dictionaries is read when the class is initialized; each dictionary
+ * is loaded on first use, once per classloader, and always shared between all instances
  * of {@code Hyphenator}. You are free to create as many instances as you wish, as all
- * hyphenation data is managed and shared internally.
+ * hyphenation data is managed and shared internally. Use {@link #preload(String...)} to load
+ * the dictionaries you need up front.
+ * Patched dictionaries can be swapped in at runtime with {@link #reloadDictionary(String, Path)}
+ * or {@link #watchDictionaries(Path)}.
  * <br><br>
  * This approach ensures efficient memory usage and keeps
  * hyphenation operations lightweight for your application.
@@ -32,19 +48,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 public class Hypherator {
     private static final Logger logger = LoggerFactory.getLogger(Hypherator.class);
-    private static final String ALL_JSON_PATH = "/hyphen/all.json";
 
-    private static final Map<String, HyphenDict> dictionaries = new HashMap<>();
+    private static volatile boolean offHeapStorage = Boolean.getBoolean("hypherator.offHeap");
+    private static final Map<String, Integer> wordCacheSizes = new ConcurrentHashMap<>();
+    private static final DictionaryRegistry registry;
     static {
         try {
-            Hypherator.loadDictionaries();
+            registry = new DictionaryRegistry(DictionaryIndex.read(), Hypherator::loadDictionary);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Creates a new Hyphenator instance and loads all dictionaries.
+     * Creates a new Hyphenator instance and loads all dictionaries. Dictionaries already loaded, or reloaded
+     * by {@link #reloadDictionary(String, Path)}, are kept; it is safe to call while other threads hyphenate.
      * 
      * @throws IOException if there's an error loading the dictionaries
      */
@@ -59,6 +77,9 @@ public class Hypherator {
      * @return a new {@link HyphenationIterator} for the locale, or {@code null} if no dictionary is available for the locale
      *
      * <p>
+     * The first call for a locale loads its dictionary; concurrent first calls wait for the same load.
+     * </p>
+     * <p>
      * <b>Usage Note:</b> The returned iterator is the recommended way to access hyphenation points and process hyphenation in text.
      * Calling this method repeatedly for the same locale will create a new iterator instance each time,
      * but the underlying dictionary is not shared between {@code Hyphenator} instances. For efficiency,
@@ -67,13 +88,363 @@ public class Hypherator {
      */
     public static HyphenationIterator getInstance(String locale) {
         locale = locale.replace('_', '-');
-        HyphenDict dict = dictionaries.get(locale);
+        HyphenDict dict = registry.get(locale);
         if (dict == null) {
             return null;
         }
-        return new HyphenationIteratorImpl(dict);
+        return dict.getHyphenator().iterator();
+    }
+
+    /**
+     * Retrieves the thread-safe {@link Hyphenator} of the given locale. It keeps no per-word state,
+     * so a single instance can be shared by all threads instead of creating an iterator per word or per thread.
+     * <p>
+     * The hyphenator is bound to the dictionary loaded at the time of the call; after a dictionary is reloaded or evicted,
+     * call this method again to get a hyphenator of the current dictionary.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return the hyphenator of the locale, or {@code null} if no dictionary is available for the locale
+     */
+    public static Hyphenator getHyphenator(String locale) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return null;
+        }
+        return dict.getHyphenator();
+    }
+
+    /**
+     * Creates a {@link java.util.concurrent.Flow.Processor} stage which hyphenates words or chunks of text of the given locale,
+     * with all breaks included, on the common {@link ForkJoinPool}; see {@link #newProcessor(String, Executor, int, int)}.
+     */
+    public static HyphenationProcessor newProcessor(String locale) {
+        return newProcessor(locale, ForkJoinPool.commonPool(), 64, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a {@link java.util.concurrent.Flow.Processor} stage which hyphenates words or chunks of text of the given locale
+     * and emits them in the order received, with all breaks included.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @param executor runs the batches
+     * @param batchSize the number of items hyphenated by one task
+     * @param maxConcurrency the maximum number of batches running at a time
+     * @return the processor, or {@code null} if no dictionary is available for the locale
+     * @throws IllegalArgumentException if {@code batchSize} or {@code maxConcurrency} is not positive
+     * @see HyphenationProcessor
+     */
+    public static HyphenationProcessor newProcessor(String locale, Executor executor, int batchSize, int maxConcurrency) {
+        String normalizedLocale = locale.replace('_', '-');
+        if (!registry.contains(normalizedLocale)) {
+            return null;
+        }
+        Supplier<HyphenDict> dictionary = () -> registry.get(normalizedLocale);
+        return new HyphenationProcessor(dictionary, BreakSet.MAX_URGENCY, executor, batchSize, maxConcurrency);
+    }
+
+    /**
+     * Hyphenates a batch of words of one locale and returns all hyphenation points in flat primitive arrays.
+     * <p>
+     * The dictionary is looked up once for the whole batch, and words occurring several times are hyphenated once.
+     * Prefer it over an iterator per word when processing many words.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @param words the words to hyphenate
+     * @return the breaks of all words, or {@code null} if no dictionary is available for the locale
+     */
+    public static HyphenationBatch hyphenate(String locale, List<? extends CharSequence> words) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return null;
+        }
+        return HyphenationBatch.of(dict, words);
+    }
+
+    /**
+     * Hyphenates a batch of words of one locale, see {@link #hyphenate(String, List)}.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @param words the words to hyphenate
+     * @return the breaks of all words, or {@code null} if no dictionary is available for the locale
+     */
+    public static HyphenationBatch hyphenate(String locale, String[] words) {
+        return hyphenate(locale, Arrays.asList(words));
+    }
+
+    /**
+     * Retrieves a new {@link TextHyphenator} instance for the given locale, which finds the hyphenation points
+     * of running text and reports them as offsets into the text.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return a new {@link TextHyphenator} for the locale, or {@code null} if no dictionary is available for the locale
+     */
+    public static TextHyphenator getTextInstance(String locale) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return null;
+        }
+        return new TextHyphenator(dict);
+    }
+
+    /**
+     * Retrieves a new {@link ParagraphBreaker} for the given locale, which breaks paragraphs into lines using
+     * the hyphenation points of the locale.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @param measure measures the width of text
+     * @return a new {@link ParagraphBreaker} for the locale, or {@code null} if no dictionary is available for the locale
+     */
+    public static ParagraphBreaker getParagraphBreaker(String locale, ParagraphBreaker.TextMeasure measure) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return null;
+        }
+        return new ParagraphBreaker(dict, measure);
+    }
+
+    /**
+     * Loads the dictionaries of the given locales now, so that later calls to {@link #getInstance(String)} do not wait.
+     * Dictionaries already loaded are not loaded again.
+     *
+     * @param locales the locale identifiers (e.g. "en-US")
+     * @return {@code true} if a dictionary is available for every given locale
+     */
+    public static boolean preload(String... locales) {
+        boolean available = true;
+        for (String locale : locales) {
+            available &= registry.get(locale.replace('_', '-')) != null;
+        }
+        return available;
+    }
+
+    /**
+     * Starts loading the dictionary of the given locale in the background, on the common {@link ForkJoinPool}.
+     * <p>
+     * The returned future is a readiness handle: once it completes, {@link #getInstance(String)} for the locale
+     * returns without waiting. A load already in progress, e.g. started by another thread, is shared.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return a future completed with {@code true} if the dictionary is loaded, or {@code false} if no dictionary
+     * is available for the locale
+     */
+    public static CompletableFuture<Boolean> loadAsync(String locale) {
+        return registry.loadAsync(locale.replace('_', '-'), ForkJoinPool.commonPool()).thenApply(dict -> dict != null);
+    }
+
+    /**
+     * Starts loading all dictionaries in parallel, on the common {@link ForkJoinPool}.
+     *
+     * @return a future completed once all dictionaries are loaded; dictionaries failing to load are skipped
+     * @see #loadAllAsync(Executor)
+     */
+    public static CompletableFuture<Void> loadAllAsync() {
+        return loadAllAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Starts loading all dictionaries in parallel, one task per dictionary on the given executor.
+     * <p>
+     * Dictionaries already loaded or being loaded are not loaded again. Requests for a locale arriving before
+     * its dictionary is ready wait only for that dictionary; use {@link #loadAsync(String)} for a per-locale handle.
+     *
+     * @param executor the executor building the dictionaries
+     * @return a future completed once all dictionaries are loaded; dictionaries failing to load are skipped
+     */
+    public static CompletableFuture<Void> loadAllAsync(Executor executor) {
+        return registry.loadAllAsync(executor);
+    }
+
+
+    /**
+     * Returns an estimate of the heap retained by the hyphenation patterns of the given locale.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return the estimated size in bytes, or {@code -1} if no dictionary is available for the locale
+     */
+    public static long getDictionaryFootprint(String locale) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return -1;
+        }
+        return dict.footprint();
+    }
+
+    /**
+     * Returns an estimate of the heap retained by the dictionary of the given locale: its patterns, NOHYPHEN entries
+     * and precomputed lexicon. Word and segment caches are not included. Use it to size a host for a set of locales.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return the estimated size in bytes, or {@code -1} if no dictionary is available for the locale
+     */
+    public static long getRetainedBytes(String locale) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return -1;
+        }
+        return dict.retainedBytes();
+    }
+
+    /**
+     * Returns the number of bytes of pattern data the dictionary of the given locale holds outside of the heap.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return the size in bytes, {@code 0} if the dictionary is stored on the heap,
+     * or {@code -1} if no dictionary is available for the locale
+     * @see #setOffHeapStorage(boolean)
+     */
+    public static long getOffHeapBytes(String locale) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null) {
+            return -1;
+        }
+        return dict.offHeapBytes();
+    }
+
+    /**
+     * Selects where dictionaries loaded from now on keep their patterns. Off-heap, the patterns live in direct
+     * buffers, which do not count against the Java heap and are not traced by the garbage collector; this suits
+     * hosting many locales in memory-limited containers. Dictionaries already loaded stay where they are.
+     * The default is taken from the system property {@code hypherator.offHeap}.
+     *
+     * @param offHeap {@code true} to store patterns outside of the heap
+     */
+    public static void setOffHeapStorage(boolean offHeap) {
+        offHeapStorage = offHeap;
     }
 
+    /**
+     * Enables caching of hyphenated words for the given locale.
+     * <p>
+     * Each thread keeps a small private cache of recent words in front of a shared cache of at most
+     * {@code maximumSize} words, which admits new words based on their estimated frequency. Cached results
+     * are immutable and shared; while caching is enabled, lists returned by {@link Hyphenate#hyphenate(HyphenDict, String)}
+     * for that locale are unmodifiable. The cache is shared by all locales using the same dictionary.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @param maximumSize maximum number of words in the shared cache, {@code 0} disables caching
+     * @return {@code true} if a dictionary is available for the locale
+     */
+    public static boolean setWordCacheSize(String locale, int maximumSize) {
+        locale = locale.replace('_', '-');
+        HyphenDict dict = registry.get(locale);
+        if (dict == null) {
+            return false;
+        }
+        // remembered, so that a dictionary reloaded after eviction gets its cache back
+        wordCacheSizes.put(locale, maximumSize);
+        dict.setWordCacheSize(maximumSize);
+        return true;
+    }
+
+    /**
+     * Returns the counters of the word cache of the given locale.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @return the cache statistics, or {@code null} if there is no dictionary or caching is not enabled for the locale
+     */
+    public static WordCacheStats getWordCacheStats(String locale) {
+        HyphenDict dict = registry.get(locale.replace('_', '-'));
+        if (dict == null || dict.getWordCache() == null) {
+            return null;
+        }
+        return dict.getWordCache().stats();
+    }
+
+    /**
+     * Bounds the set of dictionaries kept in memory. When loading a dictionary exceeds a limit, the least recently
+     * used dictionaries are unloaded; they are loaded again transparently on their next use, keeping their word
+     * cache size. Iterators already created keep working with the dictionary they were created with.
+     * Use it to host many locales on a memory-limited host.
+     *
+     * @param maxDictionaries maximum number of loaded dictionaries, {@code 0} for no limit
+     * @param maxBytes maximum estimated size of the loaded dictionaries in bytes, heap and off-heap, {@code 0} for no limit
+     * @throws IllegalArgumentException if a limit is negative
+     * @see #getResidentStats()
+     */
+    public static void setResidentLimit(int maxDictionaries, long maxBytes) {
+        registry.setResidentLimit(maxDictionaries, maxBytes);
+    }
+
+    /**
+     * Returns the counters of dictionary loads, evictions and reloads.
+     *
+     * @see #setResidentLimit(int, long)
+     */
+    public static ResidentDictionaryStats getResidentStats() {
+        return registry.stats();
+    }
+
+    /**
+     * Replaces the dictionary of the given locale, and of all locales sharing it, by one read from a file:
+     * a {@code .dic} file, which is parsed, or a compiled {@code .dicb} image. A lexicon {@code .lex} next to it
+     * is loaded if it was built with the same patterns, otherwise a word list {@code .words} next to it is
+     * hyphenated into a new lexicon.
+     * <p>
+     * The new dictionary is published with a single atomic swap: iterators created before keep using the old
+     * dictionary, new ones get the new one, and readers never wait for the reload.
+     *
+     * @param locale the locale identifier (e.g. "en-US")
+     * @param file the dictionary file
+     * @return {@code true} if the dictionary was replaced, {@code false} if the locale is not in the dictionary index
+     * @throws IOException if the file cannot be read; the old dictionary stays in use then
+     */
+    public static boolean reloadDictionary(String locale, Path file) throws IOException {
+        DictionaryEntry entry = registry.entry(locale.replace('_', '-'));
+        if (entry == null) {
+            return false;
+        }
+        reloadDictionary(entry, file);
+        return true;
+    }
+
+    /**
+     * Reloads every dictionary of the index for which the given directory holds a file, at the same relative path
+     * as the bundled dictionary (e.g. {@code en/hyph_en_US.dic}) or as its compiled image. A {@code .dic} file
+     * is preferred over an image.
+     *
+     * @param directory the directory with dictionary files
+     * @return the number of dictionaries reloaded
+     * @throws IOException if a file cannot be read; dictionaries reloaded before stay reloaded
+     * @see #reloadDictionary(String, Path)
+     */
+    public static int reloadDictionaries(Path directory) throws IOException {
+        int reloaded = 0;
+        for (DictionaryEntry entry : registry.entries()) {
+            Path file = findDictionaryFile(directory, entry.getLocations().get(0));
+            if (file != null) {
+                reloadDictionary(entry, file);
+                reloaded++;
+            }
+        }
+        return reloaded;
+    }
+
+    /**
+     * Starts watching a directory of dictionary files, laid out as for {@link #reloadDictionaries(Path)}, and reloads
+     * a dictionary in the background whenever its file is created or modified, from the file that changed: the
+     * {@code .dic} file or the {@code .dicb} image. A file that cannot be read is logged and the old dictionary stays
+     * in use.
+     *
+     * @param directory the directory with dictionary files
+     * @return the running watcher, close it to stop watching
+     * @throws IOException if the directory cannot be watched
+     */
+    public static DictionaryWatcher watchDictionaries(Path directory) throws IOException {
+        return new DictionaryWatcher(directory, (location, file) -> {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+            for (DictionaryEntry entry : registry.entries()) {
+                if (entry.getLocations().get(0).equals(location)) {
+                    try {
+                        reloadDictionary(entry, file);
+                    } catch (IOException e) {
+                        logger.warn("Failed to reload dictionary, keeping the old one: {}", file, e);
+                    }
+                }
+            }
+        });
+    }
 
     /**
      * Builds a new {@link HyphenationIterator} instance from provided input stream
@@ -87,49 +458,125 @@ public class Hypherator {
     }
 
     /**
-     * Loads all dictionaries from the all.json resource file.
+     * Loads all dictionaries listed in the dictionary index, in parallel on the common {@link ForkJoinPool},
+     * and waits until they are loaded.
      * 
      * @throws IOException if there's an error loading the dictionaries
      */
     protected static void loadDictionaries() throws IOException {
-        try (InputStream is = Hypherator.class.getResourceAsStream(ALL_JSON_PATH)) {
-            if (is == null) {
-                throw new IOException("Resource not found: " + ALL_JSON_PATH);
+        loadAllAsync().join();
+        Set<HyphenDict> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+        int localeCount = 0;
+        for (String locale : registry.locales()) {
+            HyphenDict dict = registry.getIfLoaded(locale);
+            if (dict != null) {
+                loaded.add(dict);
+                localeCount++;
             }
+        }
+        logger.info("Loaded {} dictionaries for {} locales", loaded.size(), localeCount);
+    }
 
-            ObjectMapper objectMapper = new ObjectMapper();
-            List<DictionaryEntry> entries = objectMapper.readValue(is, new TypeReference<List<DictionaryEntry>>() {});
+    /**
+     * Loads the dictionary of an index entry, with its hyphen and precomputed lexicon.
+     *
+     * @throws IOException if there's an error loading the dictionary
+     */
+    private static HyphenDict loadDictionary(DictionaryEntry entry) throws IOException {
+        String resourcePath = "/hyphen/" + entry.getLocations().get(0);
+        try {
+            logger.info("Loading dictionary: {} {}", resourcePath, entry.getLocales());
+            HyphenDict dict = loadDictionaryImageFromResource(resourcePath);
+            if (dict == null) {
+                dict = loadDictionaryFromResource(resourcePath);
+            }
+            dict.setLexicon(loadLexiconFromResource(resourcePath));
+            return prepareDictionary(dict, entry);
+        } catch (IOException e) {
+            logger.warn("Failed to load dictionary: {}", resourcePath, e);
+            throw e;
+        }
+    }
 
-            int dictionaryCount = 0;
-            int localeCount = 0;
+    /**
+     * Reads the dictionary of an index entry from a file and publishes it in place of the loaded one.
+     */
+    private static void reloadDictionary(DictionaryEntry entry, Path file) throws IOException {
+        logger.info("Reloading dictionary: {} {}", file, entry.getLocales());
+        registry.replace(entry.getLocales().get(0), prepareDictionary(readDictionaryFile(file), entry));
+    }
 
-            for (DictionaryEntry entry : entries) {
-                if (entry.getLocations() == null || entry.getLocations().isEmpty() || entry.getLocales() == null || entry.getLocales().isEmpty()) {
-                    continue;
-                }
+    /**
+     * Reads a {@code .dic} file or a {@code .dicb} image with the lexicon next to it.
+     */
+    static HyphenDict readDictionaryFile(Path file) throws IOException {
+        HyphenDict dict;
+        if (file.getFileName().toString().endsWith(DictionaryImage.FILE_EXTENSION)) {
+            dict = DictionaryImage.load(file);
+        } else {
+            dict = HyphenDictBuilder.fromFile(file.toString());
+        }
+        dict.setLexicon(loadLexiconFromFile(file, dict));
+        return dict;
+    }
 
-                String location = entry.getLocations().get(0);
-                String resourcePath = "/hyphen/" + location;
+    /**
+     * Applies the settings of the index entry and of its locales to a freshly read dictionary.
+     */
+    private static HyphenDict prepareDictionary(HyphenDict dict, DictionaryEntry entry) {
+        dict.hyphen = entry.getHyphen();
+        for (String locale : entry.getLocales()) {
+            Integer wordCacheSize = wordCacheSizes.get(locale);
+            if (wordCacheSize != null) {
+                dict.setWordCacheSize(wordCacheSize);
+            }
+        }
+        if (offHeapStorage) {
+            dict.moveOffHeap();
+        }
+        return dict;
+    }
 
-                // Load the dictionary using HyphenDictBuilder
-                try {
-                    logger.info("Loading dictionary: {} {}", resourcePath, entry.getLocales());
-                    HyphenDict dict = loadDictionaryFromResource(resourcePath);
-                    dict.hyphen = entry.getHyphen();
-                    dictionaryCount++;
+    /**
+     * Returns the file in {@code directory} for a dictionary location: the {@code .dic} file, or else its compiled image.
+     *
+     * @return the file, or {@code null} if there is neither
+     */
+    private static Path findDictionaryFile(Path directory, String location) {
+        Path file = directory.resolve(location);
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        Path image = directory.resolve(location.substring(0, location.lastIndexOf('.')) + DictionaryImage.FILE_EXTENSION);
+        return Files.isRegularFile(image) ? image : null;
+    }
 
-                    // Add dictionary for each locale
-                    for (String locale : entry.getLocales()) {
-                        dictionaries.put(locale, dict);
-                        localeCount++;
-                    }
-                } catch (IOException e) {
-                    logger.warn("Failed to load dictionary: {}", resourcePath, e);
-                }
+    /**
+     * Loads the lexicon next to a dictionary file, or builds it from the word list next to it. A lexicon built with
+     * other patterns, e.g. left next to a patched {@code .dic}, is ignored; it would override the patched breaks
+     * of the most frequent words.
+     *
+     * @return the lexicon, or {@code null} if there is none
+     */
+    private static HyphenationLexicon loadLexiconFromFile(Path dictionaryFile, HyphenDict dict) throws IOException {
+        String fileName = dictionaryFile.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.lastIndexOf('.'));
+        Path lexiconFile = dictionaryFile.resolveSibling(baseName + HyphenationLexicon.FILE_EXTENSION);
+        if (Files.isRegularFile(lexiconFile)) {
+            HyphenationLexicon lexicon;
+            try (InputStream is = new BufferedInputStream(Files.newInputStream(lexiconFile))) {
+                lexicon = HyphenationLexicon.readFrom(is);
             }
-
-            logger.info("Loaded {} dictionaries for {} locales", dictionaryCount, localeCount);
+            if (lexicon.matches(dict)) {
+                return lexicon;
+            }
+            logger.warn("Ignoring lexicon built for other patterns: {}", lexiconFile);
+        }
+        Path wordList = dictionaryFile.resolveSibling(baseName + HyphenationLexicon.WORD_LIST_EXTENSION);
+        if (Files.isRegularFile(wordList)) {
+            return HyphenationLexicon.build(dict, Files.readAllLines(wordList, StandardCharsets.UTF_8));
         }
+        return null;
     }
 
     /**
@@ -150,12 +597,56 @@ public class Hypherator {
         }
     }
 
+    /**
+     * Loads the binary image compiled for a dictionary at build time, if there is one.
+     *
+     * @param dictionaryPath the path to the dictionary resource
+     * @return the dictionary, or {@code null} if no image was built or it cannot be read
+     */
+    private static HyphenDict loadDictionaryImageFromResource(String dictionaryPath) {
+        String resourcePath = dictionaryPath.substring(0, dictionaryPath.lastIndexOf('.')) + DictionaryImage.FILE_EXTENSION;
+        URL url = Hypherator.class.getResource(resourcePath);
+        if (url == null) {
+            return null;
+        }
+        try {
+            return DictionaryImage.load(url);
+        } catch (IOException e) {
+            logger.warn("Failed to load dictionary image, parsing the dictionary instead: {}", resourcePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Loads the lexicon of frequent words precomputed for a dictionary at build time, if there is one.
+     *
+     * @param dictionaryPath the path to the dictionary resource
+     * @return the lexicon, or {@code null} if none was built or it cannot be read
+     */
+    private static HyphenationLexicon loadLexiconFromResource(String dictionaryPath) {
+        String resourcePath = dictionaryPath.substring(0, dictionaryPath.lastIndexOf('.')) + HyphenationLexicon.FILE_EXTENSION;
+        try (InputStream is = Hypherator.class.getResourceAsStream(resourcePath)) {
+            if (is == null) {
+                return null;
+            }
+            HyphenationLexicon lexicon = HyphenationLexicon.readFrom(new BufferedInputStream(is));
+            logger.info("Loaded lexicon of {} words: {}", lexicon.size(), resourcePath);
+            return lexicon;
+        } catch (IOException e) {
+            logger.warn("Failed to load lexicon: {}", resourcePath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the dictionaries loaded so far, by locale.
+     */
     protected Map<String, HyphenDict> getDictionaries() {
-        return dictionaries;
+        return registry.loadedDictionaries();
     }
 
     protected HyphenDict getDictionary(String locale) {
-        return dictionaries.get(locale);
+        return registry.get(locale);
     }
 
 }
@@ -0,0 +1,564 @@
+package io.sevcik.hypherator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Breaks a paragraph into lines of a given width, choosing the breaks of the whole paragraph together
+ * (the optimal-fit method of Knuth and Plass) instead of filling one line after another.
+ * <p>
+ * Words are separated by whitespace, which may stretch and shrink by a half and a third of a space. A word can
+ * also be broken at its hyphenation points, found as by {@link TextHyphenator}. The priorities of the patterns
+ * become graded penalties: a break of priority 9 costs a fifth of the {@link #setHyphenPenalty(double) hyphen penalty},
+ * a break of priority 1 the full penalty. Widths are measured by a caller-supplied {@link TextMeasure}, so any
+ * font and unit can be used. Replacement breaks (e.g. "schiff-fahrt" for "schiffahrt") are measured and rendered
+ * with their replaced characters.
+ * <br><br>
+ * The breaker keeps its state between layouts. After {@link #textChanged(CharSequence, int)} the next
+ * {@link #layout(double)} keeps everything in front of the first changed line; only the words from that line on
+ * are hyphenated and measured again, and only their breaks are recomputed.
+ * <pre>{@code
+ * ParagraphBreaker breaker = hyphenator.newParagraphBreaker((text, start, end) -> font.width(text, start, end));
+ * breaker.setText(paragraph);
+ * for (int line = 0; line < breaker.layout(400); line++) {
+ *     ...
+ * }
+ * // the user typed at offset 1200
+ * breaker.textChanged(paragraph, 1200);
+ * breaker.layout(400);
+ * }</pre>
+ * Instances are not thread-safe.
+ */
+public final class ParagraphBreaker {
+    /**
+     * Measures the width of text in the caller's unit.
+     */
+    @FunctionalInterface
+    public interface TextMeasure {
+        /**
+         * Returns the width of {@code text[start, end)}.
+         */
+        double width(CharSequence text, int start, int end);
+    }
+
+    private static final byte BOX = 0;
+    private static final byte GLUE = 1;
+    private static final byte PENALTY = 2;
+
+    private static final double INFINITE_PENALTY = 10000;
+    private static final double FILL = 1e9;                 // stretch of the glue ending the paragraph
+    private static final double MAX_RATIO = 1000;           // adjustment ratio of a line that cannot stretch
+    private static final double TOLERANCE = 2;              // largest adjustment ratio of a line used when others fit
+    private static final double OVERFULL_DEMERITS = 1e12;
+    private static final double LINE_PENALTY = 10;
+    private static final double DOUBLE_HYPHEN_DEMERITS = 3000;
+    private static final double ADJACENT_DEMERITS = 10000;
+
+    private final TextMeasure measure;
+    private final TextHyphenator hyphenator;
+    private final String hyphen;
+    private double hyphenPenalty = 50;
+    private int urgency = BreakSet.MAX_URGENCY;
+
+    private CharSequence text;
+    private int changedFrom = 0;
+    private double lineWidth = Double.NaN;
+    private double spaceWidth;
+    private double hyphenWidth;
+
+    // items of the paragraph: boxes, glue and penalties in text order
+    private int size = 0;
+    private byte[] types = new byte[64];
+    private double[] widths = new double[64];
+    private double[] penalties = new double[64];
+    private double[] postWidths = new double[64];   // width added to the next line by a replacement break
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private HyphenDict.BreakRule[] rules = new HyphenDict.BreakRule[64];
+    // sums of the widths, stretch and shrink of the items in front of an item
+    private double[] sumWidths = new double[65];
+    private double[] sumStretches = new double[65];
+    private double[] sumShrinks = new double[65];
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Node> active = new ArrayList<>();
+    private final Node[] best = new Node[4];
+    private final double[] bestDemerits = new double[4];
+    private final double[] bestRatios = new double[4];
+    private Node[] lines = null;
+
+    ParagraphBreaker(HyphenDict dict, TextMeasure measure) {
+        this.measure = Objects.requireNonNull(measure);
+        this.hyphenator = new TextHyphenator(dict);
+        this.hyphen = dict.hyphen != null ? dict.hyphen : "-";
+    }
+
+    /**
+     * Sets the penalty of a break of the lowest priority; the default is 50. Takes effect with the next layout.
+     */
+    public void setHyphenPenalty(double hyphenPenalty) {
+        this.hyphenPenalty = hyphenPenalty;
+        this.changedFrom = 0;
+    }
+
+    /**
+     * Sets the urgency level, see {@link HyphenationIterator#setUrgency(int)}; breaks excluded by the urgency
+     * are not used. The default is {@link BreakSet#MAX_URGENCY}. Takes effect with the next layout.
+     */
+    public void setUrgency(int urgency) {
+        this.urgency = urgency;
+        this.changedFrom = 0;
+    }
+
+    /**
+     * Returns the hyphen sign added to broken lines.
+     */
+    public String getHyphen() {
+        return hyphen;
+    }
+
+    /**
+     * Sets a new paragraph; the next layout starts from scratch.
+     */
+    public void setText(CharSequence text) {
+        this.text = Objects.requireNonNull(text);
+        this.changedFrom = 0;
+    }
+
+    /**
+     * Tells the breaker that the paragraph has changed at or after {@code from}, i.e. {@code text[0, from)} is
+     * the same as before. The next layout reuses the lines in front of the one containing {@code from}.
+     *
+     * @param text the changed paragraph
+     * @param from the offset of the first changed character
+     */
+    public void textChanged(CharSequence text, int from) {
+        Objects.checkIndex(from, text.length() + 1);
+        if (this.text == null) {
+            setText(text);
+            return;
+        }
+        this.text = text;
+        this.changedFrom = Math.min(changedFrom, from);
+    }
+
+    /**
+     * Breaks the paragraph into lines of at most {@code lineWidth}, where possible. A word wider than the line
+     * is put on an overfull line of its own.
+     *
+     * @param lineWidth the width of the lines
+     * @return the number of lines
+     * @throws IllegalStateException if no text was set
+     */
+    public int layout(double lineWidth) {
+        if (text == null)
+            throw new IllegalStateException("No text set");
+        if (!(lineWidth > 0))
+            throw new IllegalArgumentException("Line width must be positive: " + lineWidth);
+        if (Double.compare(lineWidth, this.lineWidth) != 0) {
+            this.lineWidth = lineWidth;
+            changedFrom = 0;
+        }
+        if (changedFrom == Integer.MAX_VALUE)
+            return lines.length;
+
+        int from = firstChangedItem();
+        if (from == 0) {
+            spaceWidth = measure.width(" ", 0, 1);
+            hyphenWidth = measure.width(hyphen, 0, hyphen.length());
+        }
+        buildItems(from);
+        breakLines(from);
+        changedFrom = Integer.MAX_VALUE;
+        return lines.length;
+    }
+
+    /**
+     * Returns the number of lines of the last layout.
+     */
+    public int lineCount() {
+        checkLayout();
+        return lines.length;
+    }
+
+    /**
+     * Returns the offset of the first character of the {@code line}. Whitespace at a break is not part of any line.
+     */
+    public int lineStart(int line) {
+        checkLine(line);
+        if (line == 0)
+            return 0;
+        int position = lines[line - 1].position;
+        return types[position] == GLUE ? ends[position] : starts[position];
+    }
+
+    /**
+     * Returns the offset after the last character of the {@code line}, not counting the hyphen.
+     */
+    public int lineEnd(int line) {
+        checkLine(line);
+        return starts[lines[line].position];
+    }
+
+    /**
+     * Returns {@code true} if the {@code line} ends in a hyphenation point.
+     */
+    public boolean isHyphenated(int line) {
+        checkLine(line);
+        return isHyphenBreak(lines[line].position);
+    }
+
+    /**
+     * Returns the adjustment ratio of the {@code line}: the part of the stretch (if positive) or shrink (if negative)
+     * of its spaces needed to fill the line exactly. The last line of the paragraph is not stretched.
+     */
+    public double adjustmentRatio(int line) {
+        checkLine(line);
+        return lines[line].ratio;
+    }
+
+    /**
+     * Appends the text of the {@code line} to {@code out}, with the hyphen and the characters of replacement breaks.
+     */
+    public void appendLine(int line, StringBuilder out) {
+        int start = lineStart(line);
+        int end = lineEnd(line);
+        if (line > 0) {
+            int position = lines[line - 1].position;
+            HyphenDict.BreakRule rule = isHyphenBreak(position) ? rules[position] : null;
+            if (rule != null && rule.replacement != null) {
+                out.append(rule.replacement, rule.replacement.indexOf('=') + 1, rule.replacement.length());
+                start = Math.min(end, replacementStart(starts[position], rule) + rule.replacementCount);
+            }
+        }
+        int position = lines[line].position;
+        if (isHyphenBreak(position)) {
+            HyphenDict.BreakRule rule = rules[position];
+            if (rule != null && rule.replacement != null) {
+                out.append(text, start, Math.max(start, replacementStart(starts[position], rule)))
+                        .append(rule.replacement, 0, rule.replacement.indexOf('='));
+            } else {
+                out.append(text, start, end);
+            }
+            out.append(hyphen);
+        } else {
+            out.append(text, start, end);
+        }
+    }
+
+    /**
+     * Returns the first item to build again: the start of the whitespace in front of the line containing the first
+     * changed character, or of an earlier line if that whitespace was changed too.
+     */
+    private int firstChangedItem() {
+        if (changedFrom == 0 || lines == null)
+            return 0;
+        int from = 0;
+        for (int line = 0; line < lines.length - 1; line++) {
+            int position = lines[line].position;
+            if (starts[position] >= changedFrom)
+                break;
+            from = position;
+        }
+        while (from > 0 && !(types[from] == GLUE && ends[from - 1] < changedFrom))
+            from--;
+        return from;
+    }
+
+    private void buildItems(int from) {
+        size = from;
+        int position = from == 0 ? 0 : starts[from];
+        int length = text.length();
+        hyphenator.setUrgency(urgency);
+        hyphenator.setText(text, position, length);
+        long nextBreak = hyphenator.next();
+        while (position < length) {
+            int end = position;
+            if (Character.isWhitespace(text.charAt(position))) {
+                while (end < length && Character.isWhitespace(text.charAt(end)))
+                    end++;
+                add(GLUE, position, end, spaceWidth, 0, null);
+            } else {
+                while (end < length && !Character.isWhitespace(text.charAt(end)))
+                    end++;
+                int fragment = position;
+                while (nextBreak != TextHyphenator.DONE && nextBreak < end) {
+                    int offset = (int) nextBreak;
+                    add(BOX, fragment, offset, measure.width(text, fragment, offset), 0, null);
+                    add(PENALTY, offset, offset, hyphenWidth, hyphenPenalty * (11 - hyphenator.priority()) / 10, hyphenator.breakRule());
+                    fragment = offset;
+                    nextBreak = hyphenator.next();
+                }
+                add(BOX, fragment, end, measure.width(text, fragment, end), 0, null);
+            }
+            position = end;
+        }
+        if (size > 0 && types[size - 1] == GLUE)
+            size--;
+        int end = size > 0 ? ends[size - 1] : 0;
+        add(GLUE, end, end, 0, 0, null);
+        add(PENALTY, end, end, 0, -INFINITE_PENALTY, null);
+    }
+
+    private void add(byte type, int start, int end, double width, double penalty, HyphenDict.BreakRule rule) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            penalties = Arrays.copyOf(penalties, capacity);
+            postWidths = Arrays.copyOf(postWidths, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            rules = Arrays.copyOf(rules, capacity);
+            sumWidths = Arrays.copyOf(sumWidths, capacity + 1);
+            sumStretches = Arrays.copyOf(sumStretches, capacity + 1);
+            sumShrinks = Arrays.copyOf(sumShrinks, capacity + 1);
+        }
+        double postWidth = 0;
+        if (rule != null && rule.replacement != null) {
+            // the line ends with the left part of the replacement and the next one starts with its right part
+            int separator = rule.replacement.indexOf('=');
+            int replacementStart = replacementStart(start, rule);
+            int replacementEnd = replacementStart + rule.replacementCount;
+            width += measure.width(rule.replacement, 0, separator) - measure.width(text, replacementStart, start);
+            postWidth = measure.width(rule.replacement, separator + 1, rule.replacement.length()) - measure.width(text, start, replacementEnd);
+        }
+        types[size] = type;
+        widths[size] = width;
+        penalties[size] = penalty;
+        postWidths[size] = postWidth;
+        starts[size] = start;
+        ends[size] = end;
+        rules[size] = rule;
+        sumWidths[size + 1] = sumWidths[size] + (type == PENALTY ? 0 : width);
+        // only the glue ending the paragraph is empty, it stretches without limit
+        sumStretches[size + 1] = sumStretches[size] + (type == GLUE ? (end == start ? FILL : width / 2) : 0);
+        sumShrinks[size + 1] = sumShrinks[size] + (type == GLUE ? width / 3 : 0);
+        size++;
+    }
+
+    /**
+     * Finds the best breaks from item {@code from} on. Nodes of breaks in front of {@code from} depend on the items
+     * in front of them only, so they are kept; those still active at {@code from} are active again.
+     */
+    private void breakLines(int from) {
+        active.clear();
+        if (from == 0) {
+            nodes.clear();
+            nodes.add(new Node(-1, 0, 1, 0, 0, 0, 0, 0, null));
+        } else {
+            int count = nodes.size();
+            while (nodes.get(count - 1).position >= from)
+                count--;
+            nodes.subList(count, nodes.size()).clear();
+        }
+        for (Node node : nodes) {
+            if (node.deactivatedAt >= from) {
+                node.deactivatedAt = Integer.MAX_VALUE;
+                if (node.loosePosition >= from)
+                    node.loosePosition = -1;
+                active.add(node);
+            }
+        }
+
+        for (int i = from; i < size; i++) {
+            if (isBreak(i))
+                i = tryBreak(i);
+        }
+
+        Node last = null;
+        for (int i = nodes.size() - 1; i >= 0 && nodes.get(i).position == size - 1; i--) {
+            if (last == null || nodes.get(i).demerits <= last.demerits)
+                last = nodes.get(i);
+        }
+        lines = new Node[last.line];
+        for (Node node = last; node.previous != null; node = node.previous) {
+            lines[node.line - 1] = node;
+        }
+    }
+
+    /**
+     * Tries to end a line at the item {@code position} after each active node and records the best ways of doing so.
+     * Lines looser than the tolerance are only remembered, to be used when no other line fits.
+     *
+     * @return the position to continue from, {@code position} unless an earlier break had to be used
+     */
+    private int tryBreak(int position) {
+        boolean forced = types[position] == PENALTY && penalties[position] <= -INFINITE_PENALTY;
+        double endWidth = types[position] == PENALTY ? widths[position] : 0;
+        Arrays.fill(best, null);
+        Arrays.fill(bestDemerits, Double.POSITIVE_INFINITY);
+        Node overfull = null;
+        double overfullRatio = 0;
+        Node loose = null;
+
+        for (int i = 0; i < active.size(); ) {
+            Node node = active.get(i);
+            double length = sumWidths[position] - node.width + endWidth + (isHyphenBreak(node.position) ? postWidths[node.position] : 0);
+            double ratio;
+            if (length < lineWidth) {
+                double stretch = sumStretches[position] - node.stretch;
+                ratio = stretch > 0 ? (lineWidth - length) / stretch : MAX_RATIO;
+            } else if (length > lineWidth) {
+                double shrink = sumShrinks[position] - node.shrink;
+                ratio = shrink > 0 ? (lineWidth - length) / shrink : -MAX_RATIO;
+            } else {
+                ratio = 0;
+            }
+
+            if (ratio >= -1) {
+                int fitness = ratio < -0.5 ? 0 : ratio <= 0.5 ? 1 : ratio <= 1 ? 2 : 3;
+                double demerits = node.demerits + demerits(node, position, ratio, fitness);
+                if (ratio > TOLERANCE && !forced) {
+                    node.loosePosition = position;
+                    node.looseDemerits = demerits;
+                    node.looseRatio = ratio;
+                } else if (demerits < bestDemerits[fitness]) {
+                    best[fitness] = node;
+                    bestDemerits[fitness] = demerits;
+                    bestRatios[fitness] = ratio;
+                }
+            }
+
+            if (ratio < -1 || forced) {
+                node.deactivatedAt = position;
+                active.remove(i);
+                if (ratio < -1 && (overfull == null || node.demerits < overfull.demerits)) {
+                    overfull = node;
+                    overfullRatio = ratio;
+                }
+                if (ratio < -1 && node.loosePosition >= 0 && (loose == null || node.looseDemerits < loose.looseDemerits))
+                    loose = node;
+            } else {
+                i++;
+            }
+        }
+
+        double minimum = Double.POSITIVE_INFINITY;
+        for (double demerits : bestDemerits) {
+            minimum = Math.min(minimum, demerits);
+        }
+        if (minimum < Double.POSITIVE_INFINITY) {
+            for (int fitness = 0; fitness < best.length; fitness++) {
+                if (best[fitness] != null && bestDemerits[fitness] <= minimum + ADJACENT_DEMERITS)
+                    addNode(position, best[fitness], fitness, bestDemerits[fitness], bestRatios[fitness]);
+            }
+            return position;
+        }
+        if (!active.isEmpty() || overfull == null)
+            return position;
+
+        // no line fits: go back to the last loose line of the nodes deactivated here, or accept an overfull line
+        if (loose == null) {
+            addNode(position, overfull, 1, overfull.demerits + OVERFULL_DEMERITS, overfullRatio);
+            return position;
+        }
+        int restart = loose.loosePosition;
+        int count = nodes.size();
+        while (nodes.get(count - 1).position > restart)
+            count--;
+        nodes.subList(count, nodes.size()).clear();
+        for (Node node : nodes) {
+            // nodes dropped now stay inactive when the layout is resumed behind the restart
+            node.deactivatedAt = Math.min(node.deactivatedAt, restart);
+        }
+        addNode(restart, loose, 3, loose.looseDemerits, loose.looseRatio);
+        return restart;
+    }
+
+    private double demerits(Node node, int position, double ratio, int fitness) {
+        double demerits = LINE_PENALTY + 100 * Math.abs(ratio * ratio * ratio);
+        demerits *= demerits;
+        if (types[position] == PENALTY) {
+            double penalty = penalties[position];
+            if (penalty >= 0) {
+                demerits += penalty * penalty;
+            } else if (penalty > -INFINITE_PENALTY) {
+                demerits -= penalty * penalty;
+            }
+        }
+        if (isHyphenBreak(node.position) && isHyphenBreak(position))
+            demerits += DOUBLE_HYPHEN_DEMERITS;
+        if (Math.abs(fitness - node.fitness) > 1)
+            demerits += ADJACENT_DEMERITS;
+        return demerits;
+    }
+
+    /**
+     * Adds an active node for a break at {@code position} following {@code previous}.
+     */
+    private void addNode(int position, Node previous, int fitness, double demerits, double ratio) {
+        // totals after the break, skipping the glue discarded at the start of the next line
+        int next = position;
+        while (next < size && types[next] != BOX) {
+            if (next > position && types[next] == PENALTY && penalties[next] <= -INFINITE_PENALTY)
+                break;
+            next++;
+        }
+        Node node = new Node(position, previous.line + 1, fitness, demerits, ratio, sumWidths[next], sumStretches[next], sumShrinks[next], previous);
+        nodes.add(node);
+        active.add(node);
+    }
+
+    /**
+     * Whitespace after a word and penalties are feasible breaks, the empty glue ending the paragraph is not.
+     */
+    private boolean isBreak(int position) {
+        if (types[position] == GLUE)
+            return position > 0 && types[position - 1] == BOX && ends[position] > starts[position];
+        return types[position] == PENALTY && penalties[position] < INFINITE_PENALTY;
+    }
+
+    private boolean isHyphenBreak(int position) {
+        return position >= 0 && types[position] == PENALTY && penalties[position] > -INFINITE_PENALTY;
+    }
+
+    private static int replacementStart(int position, HyphenDict.BreakRule rule) {
+        return position + rule.replacementIndex - 1; // because replacement index by spec starts at 1
+    }
+
+    private void checkLayout() {
+        if (lines == null || changedFrom != Integer.MAX_VALUE)
+            throw new IllegalStateException("No layout of the current text");
+    }
+
+    private void checkLine(int line) {
+        checkLayout();
+        if (line < 0 || line >= lines.length)
+            throw new IndexOutOfBoundsException("Line " + line + " out of bounds for " + lines.length + " lines");
+    }
+
+    /**
+     * A feasible break with the best way of reaching it for one fitness class of its line.
+     */
+    private static final class Node {
+        final int position;
+        final int line;
+        final int fitness;
+        final double demerits;
+        final double ratio;
+        final double width;
+        final double stretch;
+        final double shrink;
+        final Node previous;
+        int deactivatedAt = Integer.MAX_VALUE;
+        // the last line from here looser than the tolerance
+        int loosePosition = -1;
+        double looseDemerits;
+        double looseRatio;
+
+        Node(int position, int line, int fitness, double demerits, double ratio, double width, double stretch, double shrink, Node previous) {
+            this.position = position;
+            this.line = line;
+            this.fitness = fitness;
+            this.demerits = demerits;
+            this.ratio = ratio;
+            this.width = width;
+            this.stretch = stretch;
+            this.shrink = shrink;
+            this.previous = previous;
+        }
+    }
+}
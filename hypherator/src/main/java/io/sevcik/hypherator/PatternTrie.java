@@ -0,0 +1,562 @@
+package io.sevcik.hypherator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Packed, immutable storage of the patterns of a single {@link HyphenDict} level.
+ * <p>
+ * Outgoing edges of every node are stored in one contiguous, sorted slice of the edge characters /
+ * edge targets, so walking the trie needs no allocation and no hashing. A hyphenation
+ * scan starts one walk per position of the word and stops as soon as the next character has
+ * no edge - which yields exactly the same matches, in the same order, as probing every
+ * substring against a rule map.
+ * <p>
+ * A node in which a pattern ends points to its priority vector: {@code depth + 1} bytes in the
+ * shared priority array, one per gap of the pattern. Identical vectors are stored once.
+ * Replacement data of non-standard patterns lives in a side table keyed by the absolute index into
+ * the priority array; patterns without replacements carry no objects at all.
+ * <p>
+ * The packed arrays live either on the heap ({@link Heap}, as built) or in one direct buffer outside of it
+ * ({@link OffHeap}), where they neither count against the heap nor are traced by the garbage collector.
+ * The small replacement side table always stays on the heap.
+ */
+abstract class PatternTrie {
+    static final int ROOT = 0;
+    static final int NO_NODE = -1;
+    static final int NO_PATTERN = -1;
+
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int OBJECT_HEADER_BYTES = 16;
+
+    private final int[] replacementKeys;
+    private final HyphenDict.BreakRule[] replacementRules;
+
+    private PatternTrie(int[] replacementKeys, HyphenDict.BreakRule[] replacementRules) {
+        this.replacementKeys = replacementKeys;
+        this.replacementRules = replacementRules;
+    }
+
+    /**
+     * Follows the edge labelled {@code c} from {@code node}.
+     *
+     * @return the target node, or {@link #NO_NODE} if there is no such edge
+     */
+    abstract int step(int node, char c);
+
+    /**
+     * Returns the offset of the priority vector of the pattern ending in {@code node},
+     * or {@link #NO_PATTERN} if the node is only a prefix of other patterns.
+     */
+    abstract int patternAt(int node);
+
+    abstract int priority(int index);
+
+    abstract int nodeCount();
+
+    abstract int edgeCount();
+
+    abstract int priorityCount();
+
+    abstract int edgeStart(int node);
+
+    abstract char edgeChar(int edge);
+
+    abstract int edgeTarget(int edge);
+
+    /**
+     * Returns a copy of this trie whose packed arrays live in a direct buffer, or this trie if they already do.
+     */
+    abstract PatternTrie toOffHeap();
+
+    /**
+     * Returns the number of bytes held outside of the heap.
+     */
+    long offHeapBytes() {
+        return 0;
+    }
+
+    /**
+     * Returns the replacement rule attached to the given index of the priority array,
+     * or {@code null} for a standard break.
+     */
+    HyphenDict.BreakRule breakRuleAt(int index) {
+        if (replacementKeys.length == 0)
+            return null;
+        int low = 0;
+        int high = replacementKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (replacementKeys[mid] < index) {
+                low = mid + 1;
+            } else if (replacementKeys[mid] > index) {
+                high = mid - 1;
+            } else {
+                return replacementRules[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if no pattern at all was inserted.
+     */
+    boolean isEmpty() {
+        return nodeCount() == 1 && patternAt(ROOT) == NO_PATTERN;
+    }
+
+    /**
+     * Returns an estimate of the heap occupied by this structure, in bytes.
+     */
+    long footprint() {
+        long bytes = ARRAY_HEADER_BYTES + 4L * replacementKeys.length;
+        bytes += ARRAY_HEADER_BYTES + 4L * replacementRules.length;
+        for (HyphenDict.BreakRule rule : replacementRules) {
+            bytes += OBJECT_HEADER_BYTES + 4 * 4;
+            bytes += OBJECT_HEADER_BYTES + ARRAY_HEADER_BYTES + 2L * rule.replacement.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the packed arrays, in the layout read back by {@link #readFrom(ByteBuffer)}.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        int nodeCount = nodeCount();
+        int edgeCount = edgeCount();
+        out.writeInt(nodeCount);
+        out.writeInt(edgeCount);
+        out.writeInt(priorityCount());
+        out.writeInt(replacementKeys.length);
+        for (int node = 0; node <= nodeCount; node++)
+            out.writeInt(edgeStart(node));
+        for (int edge = 0; edge < edgeCount; edge++)
+            out.writeChar(edgeChar(edge));
+        for (int edge = 0; edge < edgeCount; edge++)
+            out.writeInt(edgeTarget(edge));
+        for (int node = 0; node < nodeCount; node++)
+            out.writeInt(patternAt(node));
+        for (int index = 0; index < priorityCount(); index++)
+            out.writeByte(priority(index));
+        for (int value : replacementKeys)
+            out.writeInt(value);
+        for (HyphenDict.BreakRule rule : replacementRules) {
+            out.writeInt(rule.value);
+            out.writeInt(rule.replacementIndex);
+            out.writeInt(rule.replacementCount);
+            out.writeInt(rule.replacement.length());
+            out.writeChars(rule.replacement);
+        }
+    }
+
+    /**
+     * Restores a trie written by {@link #writeTo(DataOutputStream)}, advancing the position of {@code buffer}.
+     * The arrays are copied out in bulk to the heap; nothing is parsed or rebuilt.
+     */
+    static PatternTrie readFrom(ByteBuffer buffer) {
+        int nodeCount = buffer.getInt();
+        int edgeCount = buffer.getInt();
+        int priorityCount = buffer.getInt();
+        int replacementCount = buffer.getInt();
+
+        int[] edgeStart = readInts(buffer, nodeCount + 1);
+        char[] edgeChars = new char[edgeCount];
+        buffer.asCharBuffer().get(edgeChars);
+        buffer.position(buffer.position() + 2 * edgeCount);
+        int[] edgeTargets = readInts(buffer, edgeCount);
+        int[] nodePatterns = readInts(buffer, nodeCount);
+        byte[] priorities = new byte[priorityCount];
+        buffer.get(priorities);
+        int[] replacementKeys = readInts(buffer, replacementCount);
+
+        HyphenDict.BreakRule[] replacementRules = new HyphenDict.BreakRule[replacementCount];
+        for (int i = 0; i < replacementCount; i++) {
+            HyphenDict.BreakRule rule = new HyphenDict.BreakRule();
+            rule.value = buffer.getInt();
+            rule.replacementIndex = buffer.getInt();
+            rule.replacementCount = buffer.getInt();
+            char[] replacement = new char[buffer.getInt()];
+            buffer.asCharBuffer().get(replacement);
+            buffer.position(buffer.position() + 2 * replacement.length);
+            rule.replacement = new String(replacement);
+            replacementRules[i] = rule;
+        }
+        return new Heap(edgeStart, edgeChars, edgeTargets, nodePatterns, priorities, replacementKeys, replacementRules);
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    /**
+     * Packed arrays on the heap, as produced by the {@link Builder}.
+     */
+    static final class Heap extends PatternTrie {
+        private final int[] edgeStart;
+        private final char[] edgeChars;
+        private final int[] edgeTargets;
+        private final int[] nodePatterns;
+        private final byte[] priorities;
+
+        private Heap(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] nodePatterns, byte[] priorities,
+                     int[] replacementKeys, HyphenDict.BreakRule[] replacementRules) {
+            super(replacementKeys, replacementRules);
+            this.edgeStart = edgeStart;
+            this.edgeChars = edgeChars;
+            this.edgeTargets = edgeTargets;
+            this.nodePatterns = nodePatterns;
+            this.priorities = priorities;
+        }
+
+        @Override
+        int step(int node, char c) {
+            int low = edgeStart[node];
+            int high = edgeStart[node + 1] - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = edgeChars[mid];
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return edgeTargets[mid];
+                }
+            }
+            return NO_NODE;
+        }
+
+        @Override
+        int patternAt(int node) {
+            return nodePatterns[node];
+        }
+
+        @Override
+        int priority(int index) {
+            return priorities[index];
+        }
+
+        @Override
+        int nodeCount() {
+            return nodePatterns.length;
+        }
+
+        @Override
+        int edgeCount() {
+            return edgeChars.length;
+        }
+
+        @Override
+        int priorityCount() {
+            return priorities.length;
+        }
+
+        @Override
+        int edgeStart(int node) {
+            return edgeStart[node];
+        }
+
+        @Override
+        char edgeChar(int edge) {
+            return edgeChars[edge];
+        }
+
+        @Override
+        int edgeTarget(int edge) {
+            return edgeTargets[edge];
+        }
+
+        @Override
+        PatternTrie toOffHeap() {
+            return new OffHeap(this);
+        }
+
+        @Override
+        long footprint() {
+            long bytes = OBJECT_HEADER_BYTES + 7 * 4 + super.footprint();
+            bytes += ARRAY_HEADER_BYTES + 4L * edgeStart.length;
+            bytes += ARRAY_HEADER_BYTES + 2L * edgeChars.length;
+            bytes += ARRAY_HEADER_BYTES + 4L * edgeTargets.length;
+            bytes += ARRAY_HEADER_BYTES + 4L * nodePatterns.length;
+            bytes += ARRAY_HEADER_BYTES + priorities.length;
+            return bytes;
+        }
+    }
+
+    /**
+     * Packed arrays in one direct buffer in native byte order: edge starts, edge targets and node patterns as ints,
+     * followed by the edge characters and the priorities. The matcher reads the buffer in place.
+     */
+    static final class OffHeap extends PatternTrie {
+        private final ByteBuffer data;
+        private final int nodeCount;
+        private final int edgeCount;
+        private final int priorityCount;
+        private final int edgeTargetsOffset;
+        private final int nodePatternsOffset;
+        private final int edgeCharsOffset;
+        private final int prioritiesOffset;
+
+        private OffHeap(PatternTrie source) {
+            super(source.replacementKeys, source.replacementRules);
+            nodeCount = source.nodeCount();
+            edgeCount = source.edgeCount();
+            priorityCount = source.priorityCount();
+            edgeTargetsOffset = 4 * (nodeCount + 1);
+            nodePatternsOffset = edgeTargetsOffset + 4 * edgeCount;
+            edgeCharsOffset = nodePatternsOffset + 4 * nodeCount;
+            prioritiesOffset = edgeCharsOffset + 2 * edgeCount;
+
+            data = ByteBuffer.allocateDirect(prioritiesOffset + priorityCount).order(ByteOrder.nativeOrder());
+            for (int node = 0; node <= nodeCount; node++)
+                data.putInt(4 * node, source.edgeStart(node));
+            for (int edge = 0; edge < edgeCount; edge++) {
+                data.putInt(edgeTargetsOffset + 4 * edge, source.edgeTarget(edge));
+                data.putChar(edgeCharsOffset + 2 * edge, source.edgeChar(edge));
+            }
+            for (int node = 0; node < nodeCount; node++)
+                data.putInt(nodePatternsOffset + 4 * node, source.patternAt(node));
+            for (int index = 0; index < priorityCount; index++)
+                data.put(prioritiesOffset + index, (byte) source.priority(index));
+        }
+
+        @Override
+        int step(int node, char c) {
+            int low = data.getInt(4 * node);
+            int high = data.getInt(4 * node + 4) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = data.getChar(edgeCharsOffset + 2 * mid);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return data.getInt(edgeTargetsOffset + 4 * mid);
+                }
+            }
+            return NO_NODE;
+        }
+
+        @Override
+        int patternAt(int node) {
+            return data.getInt(nodePatternsOffset + 4 * node);
+        }
+
+        @Override
+        int priority(int index) {
+            return data.get(prioritiesOffset + index);
+        }
+
+        @Override
+        int nodeCount() {
+            return nodeCount;
+        }
+
+        @Override
+        int edgeCount() {
+            return edgeCount;
+        }
+
+        @Override
+        int priorityCount() {
+            return priorityCount;
+        }
+
+        @Override
+        int edgeStart(int node) {
+            return data.getInt(4 * node);
+        }
+
+        @Override
+        char edgeChar(int edge) {
+            return data.getChar(edgeCharsOffset + 2 * edge);
+        }
+
+        @Override
+        int edgeTarget(int edge) {
+            return data.getInt(edgeTargetsOffset + 4 * edge);
+        }
+
+        @Override
+        PatternTrie toOffHeap() {
+            return this;
+        }
+
+        @Override
+        long offHeapBytes() {
+            return data.capacity();
+        }
+
+        @Override
+        long footprint() {
+            // the buffer object and its cleaner, the data itself is off the heap
+            return OBJECT_HEADER_BYTES + 8 * 4 + 64 + 48 + super.footprint();
+        }
+    }
+
+    /**
+     * Mutable build-time form. Patterns inserted twice are merged; the higher priority wins per position.
+     */
+    static class Builder {
+        // node object, its TreeMap, the entry pointing to it and the boxed character key
+        private static final int BUILD_NODE_BYTES = OBJECT_HEADER_BYTES + 12 + 48 + 40 + 16;
+
+        private final BuildNode root = new BuildNode();
+        private int nodeCount = 1;
+        private long vectorBytes = 0;
+
+        /**
+         * @param match the letters of the pattern
+         * @param priorities one value per gap of {@code match}, i.e. {@code match.length() + 1} values
+         * @param replacementPosition the gap carrying {@code replacement}, ignored if there is none
+         * @param replacement the replacement rule of a non-standard pattern, or {@code null}
+         */
+        void insert(String match, byte[] priorities, int replacementPosition, HyphenDict.BreakRule replacement) {
+            BuildNode node = root;
+            for (int i = 0; i < match.length(); i++) {
+                BuildNode child = node.children.get(match.charAt(i));
+                if (child == null) {
+                    child = new BuildNode();
+                    node.children.put(match.charAt(i), child);
+                    nodeCount++;
+                }
+                node = child;
+            }
+
+            if (node.priorities == null) {
+                node.priorities = priorities.clone();
+                vectorBytes += ARRAY_HEADER_BYTES + priorities.length;
+                if (replacement != null) {
+                    node.replacements = new HyphenDict.BreakRule[priorities.length];
+                    node.replacements[replacementPosition] = replacement;
+                    vectorBytes += ARRAY_HEADER_BYTES + 4L * priorities.length;
+                }
+                return;
+            }
+
+            for (int i = 0; i < priorities.length; i++) {
+                if (priorities[i] > node.priorities[i]) {
+                    node.priorities[i] = priorities[i];
+                    HyphenDict.BreakRule newReplacement = replacement != null && i == replacementPosition ? replacement : null;
+                    if (newReplacement != null && node.replacements == null) {
+                        node.replacements = new HyphenDict.BreakRule[priorities.length];
+                        vectorBytes += ARRAY_HEADER_BYTES + 4L * priorities.length;
+                    }
+                    if (node.replacements != null) {
+                        node.replacements[i] = newReplacement;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns an estimate of the heap occupied by the inserted patterns, in bytes.
+         */
+        long footprint() {
+            return (long) nodeCount * BUILD_NODE_BYTES + vectorBytes;
+        }
+
+        PatternTrie build() {
+            // Number the nodes breadth first, so the edges of node n directly follow the edges of node n - 1
+            int[] edgeStart = new int[nodeCount + 1];
+            char[] edgeChars = new char[nodeCount - 1];
+            int[] edgeTargets = new int[nodeCount - 1];
+            int[] nodePatterns = new int[nodeCount];
+
+            PriorityPool pool = new PriorityPool();
+            List<Integer> replacementKeys = new ArrayList<>();
+            List<HyphenDict.BreakRule> replacementRules = new ArrayList<>();
+
+            ArrayDeque<BuildNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            int nodeId = 0;
+            int nextId = 1;
+            int edge = 0;
+            while (!queue.isEmpty()) {
+                BuildNode node = queue.poll();
+                if (node.priorities == null) {
+                    nodePatterns[nodeId] = NO_PATTERN;
+                } else if (node.replacements == null) {
+                    nodePatterns[nodeId] = pool.intern(node.priorities);
+                } else {
+                    // the side table is keyed by position in the pool, such vectors cannot be shared
+                    int offset = pool.append(node.priorities);
+                    nodePatterns[nodeId] = offset;
+                    for (int i = 0; i < node.replacements.length; i++) {
+                        if (node.replacements[i] != null) {
+                            replacementKeys.add(offset + i);
+                            replacementRules.add(node.replacements[i]);
+                        }
+                    }
+                }
+                edgeStart[nodeId] = edge;
+                for (var child : node.children.entrySet()) {
+                    edgeChars[edge] = child.getKey();
+                    edgeTargets[edge] = nextId++;
+                    edge++;
+                    queue.add(child.getValue());
+                }
+                nodeId++;
+            }
+            edgeStart[nodeCount] = edge;
+
+            return new Heap(edgeStart, edgeChars, edgeTargets, nodePatterns, pool.toArray(),
+                    replacementKeys.stream().mapToInt(Integer::intValue).toArray(),
+                    replacementRules.toArray(new HyphenDict.BreakRule[0]));
+        }
+    }
+
+    private static class BuildNode {
+        final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        byte[] priorities;
+        HyphenDict.BreakRule[] replacements;
+    }
+
+    private static class PriorityPool {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private byte[] data = new byte[1024];
+        private int size = 0;
+
+        int intern(byte[] vector) {
+            // ISO-8859-1 maps every byte to one char, so the string is an exact key of the vector
+            String key = new String(vector, StandardCharsets.ISO_8859_1);
+            Integer offset = offsets.get(key);
+            if (offset == null) {
+                offset = append(vector);
+                offsets.put(key, offset);
+            }
+            return offset;
+        }
+
+        int append(byte[] vector) {
+            if (size + vector.length > data.length) {
+                byte[] grown = new byte[Math.max(data.length * 2, size + vector.length)];
+                System.arraycopy(data, 0, grown, 0, size);
+                data = grown;
+            }
+            System.arraycopy(vector, 0, data, size, vector.length);
+            int offset = size;
+            size += vector.length;
+            return offset;
+        }
+
+        byte[] toArray() {
+            byte[] result = new byte[size];
+            System.arraycopy(data, 0, result, 0, size);
+            return result;
+        }
+    }
+}
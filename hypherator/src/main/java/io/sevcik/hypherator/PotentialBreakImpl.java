@@ -2,4 +2,12 @@ package io.sevcik.hypherator;
 
 import io.sevcik.hypherator.dto.PotentialBreak;
 
-record PotentialBreakImpl(int position, int priority, HyphenDict.BreakRule breakRule)  implements PotentialBreak {}
+/**
+ * A break at {@code position} with the given priority. {@code breakRule} carries the replacement of
+ * a non-standard break and is {@code null} for a plain one.
+ */
+record PotentialBreakImpl(int position, int priority, HyphenDict.BreakRule breakRule)  implements PotentialBreak {
+    boolean hasReplacement() {
+        return breakRule != null && breakRule.replacement != null;
+    }
+}
@@ -0,0 +1,113 @@
+package io.sevcik.hypherator;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of the breaks found in compound segments, owned by one {@link HyphenDict} level.
+ * <p>
+ * Compound languages keep matching the same constituents, so the result of matching a segment is kept,
+ * keyed by the normalized segment text and its word-edge flags. Entries live in two generations: new
+ * entries go to the young map and, once it is full, the young map becomes the old one and the previous
+ * old map is dropped. Hits in the old generation are promoted. This bounds the cache to {@code 2 * generationSize}
+ * entries and approximates LRU without locks on the read path.
+ */
+final class SegmentCache {
+    private final int generationSize;
+    private volatile ConcurrentHashMap<Key, Breaks> young = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Key, Breaks> old = new ConcurrentHashMap<>();
+
+    SegmentCache(int generationSize) {
+        this.generationSize = generationSize;
+    }
+
+    Breaks get(Key probe) {
+        Breaks breaks = young.get(probe);
+        if (breaks == null) {
+            breaks = old.get(probe);
+            if (breaks != null) {
+                put(probe.copy(), breaks);
+            }
+        }
+        return breaks;
+    }
+
+    void put(Key key, Breaks breaks) {
+        ConcurrentHashMap<Key, Breaks> generation = young;
+        generation.put(key, breaks);
+        if (generation.size() > generationSize) {
+            synchronized (this) {
+                if (young == generation) {
+                    old = generation;
+                    young = new ConcurrentHashMap<>();
+                }
+            }
+        }
+    }
+
+    int size() {
+        return young.size() + old.size();
+    }
+
+    /**
+     * Segment text plus word-edge flags. A probe points into a reusable buffer; {@link #copy()} detaches it for storage.
+     */
+    static final class Key {
+        private char[] text;
+        private int length;
+        private boolean isWordLeftEnd;
+        private boolean isWordRightEnd;
+        private int hash;
+
+        Key set(char[] text, int length, boolean isWordLeftEnd, boolean isWordRightEnd) {
+            this.text = text;
+            this.length = length;
+            this.isWordLeftEnd = isWordLeftEnd;
+            this.isWordRightEnd = isWordRightEnd;
+            int h = (isWordLeftEnd ? 2 : 0) | (isWordRightEnd ? 1 : 0);
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + text[i];
+            }
+            this.hash = h;
+            return this;
+        }
+
+        Key copy() {
+            Key key = new Key();
+            key.text = Arrays.copyOf(text, length);
+            key.length = length;
+            key.isWordLeftEnd = isWordLeftEnd;
+            key.isWordRightEnd = isWordRightEnd;
+            key.hash = hash;
+            return key;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return hash == key.hash && isWordLeftEnd == key.isWordLeftEnd && isWordRightEnd == key.isWordRightEnd &&
+                    Arrays.equals(text, 0, length, key.text, 0, key.length);
+        }
+    }
+
+    /**
+     * Immutable breaks of a segment, as positions relative to the start of the segment.
+     */
+    static final class Breaks {
+        final int[] positions;
+        final byte[] priorities;
+        final HyphenDict.BreakRule[] rules;
+
+        Breaks(int[] positions, byte[] priorities, HyphenDict.BreakRule[] rules) {
+            this.positions = positions;
+            this.priorities = priorities;
+            this.rules = rules;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Finds the hyphenation points of running text, streaming it through a bounded buffer.
+ * <p>
+ * The text is split into words by the hyphenator itself: a word is a run of letters, digits and combining marks,
+ * which may contain apostrophes and dashes between its characters (e.g. "don't", "mother-in-law"). The word is
+ * hyphenated as a whole, so the dictionary decides about breaks next to digits, apostrophes and dashes exactly as
+ * for {@link HyphenationIterator#setWord(String)}. Words without a letter are skipped, as are words longer than
+ * the buffer.
+ * <br><br>
+ * Breaks are returned one by one by {@link #next()} as offsets into the original text, in text order. Words are
+ * matched through a reusable view of the buffer, so no string is created per word.
+ * <pre>{@code
+ * TextHyphenator hyphenator = Hypherator.getTextInstance("en-US");
+ * hyphenator.setText(reader);
+ * for (long offset = hyphenator.next(); offset != TextHyphenator.DONE; offset = hyphenator.next()) {
+ *     ...
+ * }
+ * }</pre>
+ * Instances are not thread-safe.
+ */
+public final class TextHyphenator {
+    /**
+     * Returned by {@link #next()} when the text has no further hyphenation points.
+     */
+    public static final long DONE = -1;
+
+    static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    private final HyphenDict dict;
+    private final Hyphenate hyphenate = new HyphenateImpl();
+    private final BreakSet breaks = new BreakSet();
+    private final CharArrayWindow word = new CharArrayWindow();
+    private int priorityFilter = 1;
+
+    private char[] buffer;
+    private Reader reader;
+    private CharSequence text;
+    private int textPosition;
+    private int textEnd;
+    private boolean endOfInput = true;
+
+    private long bufferOffset;  // offset of buffer[0] in the text
+    private int limit;          // number of valid characters in the buffer
+    private int position;       // next character to scan
+    private int breakIndex;
+    private long wordOffset;
+
+    TextHyphenator(HyphenDict dict) {
+        this(dict, DEFAULT_BUFFER_SIZE);
+    }
+
+    TextHyphenator(HyphenDict dict, int bufferSize) {
+        this.dict = dict;
+        this.buffer = new char[bufferSize];
+    }
+
+    /**
+     * Sets the urgency level, see {@link HyphenationIterator#setUrgency(int)}. Applies to the following calls of {@link #next()}.
+     */
+    public void setUrgency(int urgency) {
+        this.priorityFilter = 10 - urgency;
+    }
+
+    /**
+     * Get the default hyphen sign for the given language
+     */
+    public String getHyphen() {
+        return dict.hyphen;
+    }
+
+    /**
+     * Starts hyphenating the given text.
+     */
+    public void setText(CharSequence text) {
+        setText(text, 0, text.length());
+    }
+
+    /**
+     * Starts hyphenating {@code text[start, end)}. Offsets returned by {@link #next()} stay relative to the whole text.
+     */
+    void setText(CharSequence text, int start, int end) {
+        reset();
+        this.text = text;
+        this.textPosition = start;
+        this.textEnd = end;
+        this.bufferOffset = start;
+        this.endOfInput = false;
+    }
+
+    /**
+     * Starts hyphenating the text read from {@code reader}. The reader is read as far as needed by {@link #next()}
+     * and not closed.
+     */
+    public void setText(Reader reader) {
+        reset();
+        this.reader = reader;
+        this.endOfInput = false;
+    }
+
+    /**
+     * Returns the offset of the next hyphenation point in the text, i.e. the number of characters in front of it.
+     *
+     * @return the offset, or {@link #DONE} at the end of the text
+     * @throws UncheckedIOException if reading the text fails
+     */
+    public long next() {
+        while (true) {
+            while (breakIndex < breaks.size()) {
+                int index = breakIndex++;
+                if (breaks.priority(index) >= priorityFilter)
+                    return wordOffset + breaks.position(index);
+            }
+            if (!nextWord())
+                return DONE;
+        }
+    }
+
+    /**
+     * Returns the priority of the break last returned by {@link #next()}.
+     */
+    public int priority() {
+        return breaks.priority(currentBreak());
+    }
+
+    /**
+     * Returns {@code true} if applying the break last returned by {@link #next()} changes the characters around it,
+     * see {@link BreakSet#hasReplacement(int)}.
+     */
+    public boolean hasReplacement() {
+        return breaks.hasReplacement(currentBreak());
+    }
+
+    /**
+     * Returns the break last returned by {@link #next()} as a handle for {@link HyphenationIterator#applyBreak(PotentialBreak)}
+     * on the current {@link #word()}.
+     */
+    public PotentialBreak potentialBreak() {
+        return breaks.potentialBreak(currentBreak());
+    }
+
+    /**
+     * Returns the offset of the word containing the break last returned by {@link #next()}.
+     */
+    public long wordOffset() {
+        return wordOffset;
+    }
+
+    /**
+     * Returns the word containing the break last returned by {@link #next()}. The returned view is only valid
+     * until the next call of {@link #next()}; use {@code toString()} to keep it.
+     */
+    public CharSequence word() {
+        return word;
+    }
+
+    HyphenDict.BreakRule breakRule() {
+        return breaks.breakRule(currentBreak());
+    }
+
+    private int currentBreak() {
+        if (breakIndex == 0)
+            throw new IllegalStateException("No break has been returned by next()");
+        return breakIndex - 1;
+    }
+
+    private void reset() {
+        reader = null;
+        text = null;
+        textPosition = 0;
+        textEnd = 0;
+        bufferOffset = 0;
+        limit = 0;
+        position = 0;
+        breaks.clear();
+        breakIndex = 0;
+        word.clear();
+        wordOffset = 0;
+    }
+
+    /**
+     * Scans for the next word with a letter and hyphenates it.
+     *
+     * @return {@code false} at the end of the text
+     */
+    private boolean nextWord() {
+        breaks.clear();
+        breakIndex = 0;
+        while (true) {
+            // skip to the start of a word
+            while (true) {
+                if (position == limit && !fill())
+                    return false;
+                if (isWordChar(buffer[position]))
+                    break;
+                position++;
+            }
+
+            int start = position;
+            boolean hasLetter = false;
+            boolean tooLong = false;
+            while (true) {
+                if (position == limit) {
+                    if (start == 0 && limit == buffer.length) {
+                        // longer than the buffer, skip the rest of it
+                        tooLong = true;
+                        compact(position);
+                    } else {
+                        start -= compact(start);
+                    }
+                    if (!fill())
+                        break;
+                }
+                char c = buffer[position];
+                if (isWordChar(c)) {
+                    hasLetter |= Character.isLetter(c) || Character.isSurrogate(c);
+                    position++;
+                } else if (isJoiner(c) && position > start) {
+                    // a joiner belongs to the word only if a word character follows
+                    if (position + 1 == limit) {
+                        start -= compact(start);
+                        // with a word as long as the buffer, there is no room to look ahead; end it here
+                        if (limit < buffer.length)
+                            fill();
+                    }
+                    if (position + 1 < limit && isWordChar(buffer[position + 1])) {
+                        position++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    break;
+                }
+            }
+
+            if (!tooLong && hasLetter) {
+                word.set(buffer, start, position - start);
+                wordOffset = bufferOffset + start;
+                hyphenate.hyphenate(dict, word, breaks);
+                if (breaks.size() > 0)
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Discards the characters before {@code keep} from the buffer.
+     *
+     * @return the number of discarded characters
+     */
+    private int compact(int keep) {
+        if (keep == 0)
+            return 0;
+        System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+        limit -= keep;
+        position -= keep;
+        bufferOffset += keep;
+        return keep;
+    }
+
+    /**
+     * Reads more text behind the valid characters, compacting the buffer first if it is full.
+     *
+     * @return {@code false} if no character could be added
+     */
+    private boolean fill() {
+        if (endOfInput)
+            return false;
+        if (limit == buffer.length)
+            compact(position);
+        if (limit == buffer.length)
+            return false;
+
+        int read;
+        if (reader != null) {
+            try {
+                read = reader.read(buffer, limit, buffer.length - limit);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            read = Math.min(buffer.length - limit, textEnd - textPosition);
+            if (text instanceof String string) {
+                string.getChars(textPosition, textPosition + read, buffer, limit);
+            } else {
+                for (int i = 0; i < read; i++) {
+                    buffer[limit + i] = text.charAt(textPosition + i);
+                }
+            }
+            textPosition += read;
+        }
+        if (read <= 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        if (Character.isLetterOrDigit(c) || Character.isSurrogate(c))
+            return true;
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK;
+    }
+
+    private static boolean isJoiner(char c) {
+        return c == '\'' || c == '’' || c == '-' || c == '–' || c == '‐' || c == '‑';
+    }
+}
@@ -0,0 +1,192 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordCacheStats;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in cache of whole-word results of one {@link HyphenDict}.
+ * <p>
+ * Word frequencies in natural language are heavily skewed, so a small cache answers most lookups. The cache has two tiers:
+ * <ul>
+ *     <li>L1 - a small direct-mapped table per thread, read and written without any synchronization;</li>
+ *     <li>L2 - a shared, size-bounded {@link ConcurrentHashMap}. When it is full, a new word is only admitted if a
+ *     frequency sketch (TinyLFU) estimates it to be more popular than the oldest entry, which it then replaces.</li>
+ * </ul>
+ * Cached lists are unmodifiable and hold immutable breaks, so they are shared freely between threads and iterators.
+ * Frequencies are only recorded on L1 misses, keeping the hottest words off the shared sketch.
+ * A lookup allocates nothing: L2 is probed with a reusable per-thread key, only {@link #put} creates strings.
+ */
+final class WordCache {
+    private static final int L1_SIZE = 256;
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final FrequencySketch sketch;
+    private final ThreadLocal<Local> locals = ThreadLocal.withInitial(Local::new);
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    WordCache(int maximumSize) {
+        if (maximumSize <= 0)
+            throw new IllegalArgumentException("Maximum cache size must be positive: " + maximumSize);
+        this.maximumSize = maximumSize;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Returns the cached breaks of {@code word}, or {@code null} if it is not cached.
+     */
+    List<PotentialBreak> get(CharSequence word) {
+        int hash = hash(word);
+        Local thread = locals.get();
+        Object[] local = thread.entries;
+        int slot = (hash & (L1_SIZE - 1)) << 1;
+        Object localKey = local[slot];
+        if (localKey != null && ((String) localKey).contentEquals(word)) {
+            l1Hits.increment();
+            @SuppressWarnings("unchecked")
+            List<PotentialBreak> breaks = (List<PotentialBreak>) local[slot + 1];
+            return breaks;
+        }
+
+        sketch.increment(hash);
+        LookupKey key = thread.key;
+        key.word = word;
+        key.hash = hash;
+        Entry entry = entries.get(key);
+        key.word = null;
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        local[slot] = entry.word;
+        local[slot + 1] = entry.breaks;
+        return entry.breaks;
+    }
+
+    /**
+     * Offers the breaks of {@code word} to the cache. {@code breaks} must not be modified afterwards.
+     */
+    void put(String word, List<PotentialBreak> breaks) {
+        Object[] local = locals.get().entries;
+        int slot = (word.hashCode() & (L1_SIZE - 1)) << 1;
+        local[slot] = word;
+        local[slot + 1] = breaks;
+
+        if (entries.size() >= maximumSize) {
+            String victim = insertionOrder.peek();
+            if (victim != null && sketch.frequency(word.hashCode()) <= sketch.frequency(victim.hashCode())) {
+                rejections.increment();
+                return;
+            }
+            while (entries.size() >= maximumSize && (victim = insertionOrder.poll()) != null) {
+                if (entries.remove(victim) != null)
+                    evictions.increment();
+            }
+        }
+        if (entries.putIfAbsent(word, new Entry(word, breaks)) == null)
+            insertionOrder.add(word);
+    }
+
+    WordCacheStats stats() {
+        return new WordCacheStats(l1Hits.sum(), l2Hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), entries.size());
+    }
+
+    private static int hash(CharSequence word) {
+        // same as String.hashCode(), so the L1 slot of a String and of an equal CharSequence match
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+        return hash;
+    }
+
+    private record Entry(String word, List<PotentialBreak> breaks) {}
+
+    private static final class Local {
+        final Object[] entries = new Object[2 * L1_SIZE];
+        final LookupKey key = new LookupKey();
+    }
+
+    /**
+     * Probe for the {@code String} keys of L2 without copying the word: hashes like {@link String#hashCode()} and
+     * equals a string of the same content. Only meant for {@link ConcurrentHashMap#get}, which calls the probe's
+     * {@code equals}; the relation is not symmetric.
+     */
+    private static final class LookupKey {
+        CharSequence word;
+        int hash;
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof String string && string.contentEquals(word);
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of saturating 4-bit counters (stored in bytes). Once the number of recorded
+     * accesses reaches ten times the cache size, all counters are halved, so that old popularity fades.
+     * Updates are not synchronized; a lost increment only makes an estimate slightly lower.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+            counters = new byte[width * DEPTH];
+            mask = width - 1;
+            sampleSize = 10 * maximumSize;
+        }
+
+        void increment(int hash) {
+            for (int row = 0; row < DEPTH; row++) {
+                int index = index(hash, row);
+                if (counters[index] < MAX_COUNT)
+                    counters[index]++;
+            }
+            if (++additions >= sampleSize) {
+                additions = 0;
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, counters[index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return row * (mask + 1) + (h & mask);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.sevcik.hypherator.dto;
+
+/**
+ * Snapshot of the counters of the resident dictionary set.
+ *
+ * @param loads dictionaries loaded, including reloads
+ * @param reloads loads of dictionaries that had been evicted before
+ * @param evictions dictionaries dropped to stay within the resident limits
+ * @param reloadNanos total time spent reloading evicted dictionaries, in nanoseconds
+ * @param residentDictionaries current number of loaded dictionaries
+ * @param residentBytes estimated heap and off-heap size of the loaded dictionaries
+ */
+public record ResidentDictionaryStats(long loads, long reloads, long evictions, long reloadNanos,
+                                      int residentDictionaries, long residentBytes) {
+
+    /**
+     * Returns the average time of a reload in nanoseconds, or {@code 0} if there were none.
+     */
+    public double averageReloadNanos() {
+        return reloads == 0 ? 0 : (double) reloadNanos / reloads;
+    }
+}
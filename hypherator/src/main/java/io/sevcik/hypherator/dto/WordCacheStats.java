@@ -0,0 +1,22 @@
+package io.sevcik.hypherator.dto;
+
+/**
+ * Snapshot of the counters of a word cache.
+ *
+ * @param localHits lookups answered by the per-thread tier
+ * @param sharedHits lookups answered by the shared tier
+ * @param misses lookups not found in either tier
+ * @param evictions entries removed from the shared tier to make room for more frequent words
+ * @param rejections words not admitted to the full shared tier, because they were less frequent than the entry they would replace
+ * @param size current number of entries in the shared tier
+ */
+public record WordCacheStats(long localHits, long sharedHits, long misses, long evictions, long rejections, long size) {
+
+    /**
+     * Returns the share of lookups answered from the cache, or {@code 0} if there were none.
+     */
+    public double hitRate() {
+        long lookups = localHits + sharedHits + misses;
+        return lookups == 0 ? 0 : (double) (localHits + sharedHits) / lookups;
+    }
+}
@@ -0,0 +1,20 @@
+package io.sevcik.hypherator.dto;
+
+import java.util.List;
+
+/**
+ * A word split over several lines.
+ *
+ * @param fragments the parts of the word in line order, with the characters of replacement breaks applied;
+ *                  every fragment but the last is to be followed by the hyphen
+ * @param breaks the applied breaks, one less than the fragments, as handles of the whole word
+ */
+public record WordSplit(List<String> fragments, List<PotentialBreak> breaks) {
+
+    /**
+     * Returns the number of lines the word is split over.
+     */
+    public int lineCount() {
+        return fragments.size();
+    }
+}
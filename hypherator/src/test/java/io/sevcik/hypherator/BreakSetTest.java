@@ -0,0 +1,72 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BreakSetTest {
+
+    @Test
+    public void testBreakSetMatchesBreakList() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenate hyphenate = new HyphenateImpl();
+        BreakSet breakSet = new BreakSet();
+
+        for (String word : List.of("aberrations", "abhorrer", "aarhus", "abbreviation")) {
+            List<PotentialBreak> breaks = hyphenate.hyphenate(dict, word);
+            hyphenate.hyphenate(dict, word, breakSet);
+
+            assertEquals(breaks.size(), breakSet.size(), "Break count differs for " + word);
+            for (int i = 0; i < breaks.size(); i++) {
+                PotentialBreakImpl expected = (PotentialBreakImpl) breaks.get(i);
+                assertEquals(expected.position(), breakSet.position(i));
+                assertEquals(expected.priority(), breakSet.priority(i));
+                assertFalse(breakSet.hasReplacement(i));
+            }
+        }
+    }
+
+    @Test
+    public void testUrgencyFilterAndMask() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenate hyphenate = new HyphenateImpl();
+        BreakSet breakSet = new BreakSet();
+        hyphenate.hyphenate(dict, "aberrations", breakSet);
+
+        assertEquals(2, breakSet.count(BreakSet.MAX_URGENCY));
+        assertEquals((1L << 4) | (1L << 6), breakSet.mask(BreakSet.MAX_URGENCY));
+
+        int[] positions = new int[4];
+        assertEquals(2, breakSet.positions(BreakSet.MAX_URGENCY, positions));
+        assertEquals(4, positions[0]);
+        assertEquals(6, positions[1]);
+
+        for (int urgency = 0; urgency <= BreakSet.MAX_URGENCY; urgency++) {
+            int expected = 0;
+            for (int i = 0; i < breakSet.size(); i++) {
+                if (breakSet.priority(i) >= 10 - urgency)
+                    expected++;
+            }
+            assertEquals(expected, breakSet.count(urgency));
+            assertEquals(expected, Long.bitCount(breakSet.mask(urgency)));
+        }
+    }
+
+    @Test
+    public void testReplacementBreakHandle() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        Hyphenate hyphenate = new HyphenateImpl();
+        BreakSet breakSet = new BreakSet();
+        hyphenate.hyphenate(dict, "schiffahrt", breakSet);
+
+        assertEquals(1, breakSet.size());
+        assertTrue(breakSet.hasReplacement(0));
+        var parts = hyphenate.applyBreak("schiffahrt", breakSet.potentialBreak(0));
+        assertEquals("schiff", parts.getFirst());
+        assertEquals("fahrt", parts.getSecond());
+    }
+}
@@ -0,0 +1,63 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.Pair;
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharArrayInputTest {
+
+    private void assertSameAsString(String dictionary, String word) throws IOException {
+        HyphenDict dict = TestDictionaries.load(dictionary);
+        Hyphenate hyphenate = new HyphenateImpl();
+        List<PotentialBreak> expected = hyphenate.hyphenate(dict, word);
+
+        char[] buffer = ("<<" + word + ">>").toCharArray();
+        BreakSet breaks = new BreakSet();
+        hyphenate.hyphenate(dict, buffer, 2, word.length(), breaks);
+        assertEquals(expected.size(), breaks.size(), "Break count differs for " + word);
+
+        for (int i = 0; i < breaks.size(); i++) {
+            PotentialBreak potentialBreak = breaks.potentialBreak(i);
+            assertEquals(expected.get(i), potentialBreak);
+            Pair<String, String> parts = hyphenate.applyBreak(word, potentialBreak);
+
+            StringBuilder left = new StringBuilder("[");
+            StringBuilder right = new StringBuilder("[");
+            hyphenate.applyBreak(buffer, 2, word.length(), potentialBreak, left, right);
+            assertEquals("[" + parts.getFirst(), left.toString());
+            assertEquals("[" + parts.getSecond(), right.toString());
+
+            left.setLength(0);
+            right.setLength(0);
+            hyphenate.applyBreak(CharBuffer.wrap(buffer), 2, 2 + word.length(), potentialBreak, left, right);
+            assertEquals(parts.getFirst(), left.toString());
+            assertEquals(parts.getSecond(), right.toString());
+        }
+    }
+
+    @Test
+    public void testStandardBreaks() throws IOException {
+        assertSameAsString("base", "abbreviation");
+        assertSameAsString("compound", "motorcycle");
+    }
+
+    @Test
+    public void testReplacementBreaks() throws IOException {
+        assertSameAsString("alt", "schiffahrt");
+        assertSameAsString("alt2", "schiffen");
+        assertSameAsString("basealt", "paral·lel");
+    }
+
+    @Test
+    public void testRejectsRangeOutsideBuffer() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        HyphenationIteratorImpl iterator = new HyphenationIteratorImpl(dict);
+        assertThrows(IndexOutOfBoundsException.class, () -> iterator.hyphenate(new char[4], 2, 3, new BreakSet()));
+    }
+}
@@ -0,0 +1,97 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DictionaryImageTest {
+
+    private HyphenDict roundTrip(HyphenDict dict) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DictionaryImage.write(dict, out);
+        return DictionaryImage.read(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    private void assertSameBreaks(HyphenDict expectedDict, HyphenDict actualDict, String word) {
+        Hyphenate hyphenate = new HyphenateImpl();
+        List<PotentialBreak> expected = hyphenate.hyphenate(expectedDict, word);
+        List<PotentialBreak> actual = hyphenate.hyphenate(actualDict, word);
+        assertEquals(expected, actual, "Breaks differ for " + word);
+        for (int i = 0; i < actual.size(); i++) {
+            var expectedParts = hyphenate.applyBreak(word, expected.get(i));
+            var actualParts = hyphenate.applyBreak(word, actual.get(i));
+            assertEquals(expectedParts.getFirst(), actualParts.getFirst());
+            assertEquals(expectedParts.getSecond(), actualParts.getSecond());
+        }
+    }
+
+    @Test
+    public void testImageRestoresAllLevels() throws IOException {
+        for (String name : List.of("base", "compound", "compound3", "lhmin", "rhmin", "num")) {
+            HyphenDict dict = TestDictionaries.load(name);
+            HyphenDict restored = roundTrip(dict);
+
+            HyphenDict level = dict;
+            HyphenDict restoredLevel = restored;
+            while (level != null) {
+                assertNotNull(restoredLevel, "Missing level in " + name);
+                assertEquals(level.leftHyphenMin, restoredLevel.leftHyphenMin);
+                assertEquals(level.rightHyphenMin, restoredLevel.rightHyphenMin);
+                assertEquals(level.leftCompoundMin, restoredLevel.leftCompoundMin);
+                assertEquals(level.rightCompoundMin, restoredLevel.rightCompoundMin);
+                assertEquals(level.noHyphens, restoredLevel.noHyphens);
+                assertEquals(level.getPatternTrie().nodeCount(), restoredLevel.getPatternTrie().nodeCount());
+                level = level.nextLevel;
+                restoredLevel = restoredLevel.nextLevel;
+            }
+            assertNull(restoredLevel);
+
+            for (String word : List.of("motorcycle", "aberrations", "abbreviation", "a1b2c3d", "x")) {
+                assertSameBreaks(dict, restored, word);
+            }
+        }
+    }
+
+    @Test
+    public void testImageKeepsReplacementRules() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        HyphenDict restored = roundTrip(dict);
+        assertSameBreaks(dict, restored, "schiffahrt");
+
+        var parts = new HyphenateImpl().applyBreak("schiffahrt", new HyphenateImpl().hyphenate(restored, "schiffahrt").get(0));
+        assertEquals("schiff", parts.getFirst());
+        assertEquals("fahrt", parts.getSecond());
+    }
+
+    @Test
+    public void testRejectsForeignData() {
+        byte[] data = "UTF-8\nab1c\n".getBytes();
+        assertThrows(IOException.class, () -> DictionaryImage.read(ByteBuffer.wrap(data)));
+
+        byte[] truncated = Arrays.copyOf(new byte[]{0x48, 0x59, 0x44, 0x49, 0, 0, 0, 1, 0, 0, 0, 1}, 20);
+        assertThrows(IOException.class, () -> DictionaryImage.read(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    public void testPartlyWrittenFileIsCorrupt(@TempDir Path directory) throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DictionaryImage.write(dict, out);
+        Path file = directory.resolve("hyph_xx" + DictionaryImage.FILE_EXTENSION);
+
+        Files.write(file, Arrays.copyOf(out.toByteArray(), out.size() / 2));
+        assertThrows(IOException.class, () -> DictionaryImage.load(file));
+        Files.write(file, out.toByteArray());
+        assertSameBreaks(dict, DictionaryImage.load(file), "aberrations");
+    }
+}
@@ -0,0 +1,36 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.DictionaryEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DictionaryIndexTest {
+
+    @Test
+    public void testReadsManifest() throws IOException {
+        String manifest = "# Generated by DictionariesProcessor: locations<TAB>locales<TAB>hyphen\n" +
+                "de/hyph_de_DE.dic\tde-DE de\t-\n" +
+                "\n" +
+                "ta_IN/hyph_ta_IN.dic\tta-IN ta\t\n";
+        List<DictionaryEntry> entries = DictionaryIndex.readManifest(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, entries.size());
+        assertEquals(List.of("de/hyph_de_DE.dic"), entries.get(0).getLocations());
+        assertEquals(List.of("de-DE", "de"), entries.get(0).getLocales());
+        assertEquals("-", entries.get(0).getHyphen());
+        assertEquals(List.of("ta-IN", "ta"), entries.get(1).getLocales());
+        assertEquals("", entries.get(1).getHyphen());
+    }
+
+    @Test
+    public void testRejectsMalformedManifest() {
+        byte[] manifest = "de/hyph_de_DE.dic de-DE\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> DictionaryIndex.readManifest(new ByteArrayInputStream(manifest)));
+    }
+}
@@ -0,0 +1,207 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.DictionaryEntry;
+import io.sevcik.hypherator.dto.ResidentDictionaryStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DictionaryRegistryTest {
+
+    private static DictionaryEntry entry(String location, String... locales) {
+        DictionaryEntry entry = new DictionaryEntry();
+        entry.setLocations(List.of(location));
+        entry.setLocales(List.of(locales));
+        return entry;
+    }
+
+    @Test
+    public void testLoadsOnFirstUseOncePerDictionary() throws Exception {
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        DictionaryRegistry registry = new DictionaryRegistry(
+                List.of(entry("xx/xx.dic", "xx", "xx-XX"), entry("yy/yy.dic", "yy")),
+                entry -> {
+                    loadCount.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return new HyphenDict();
+                });
+        assertEquals(0, loadCount.get());
+        assertNull(registry.getIfLoaded("xx"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<HyphenDict>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String locale = i % 2 == 0 ? "xx" : "xx-XX";
+                results.add(executor.submit(() -> registry.get(locale)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            HyphenDict first = results.get(0).get(5, TimeUnit.SECONDS);
+            assertNotNull(first);
+            for (Future<HyphenDict> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loadCount.get());
+        assertEquals(2, registry.loadedDictionaries().size());
+        assertNull(registry.getIfLoaded("yy"));
+        assertNull(registry.get("zz"));
+    }
+
+    @Test
+    public void testLoadsAllInParallel() throws Exception {
+        Set<String> loadingThreads = ConcurrentHashMap.newKeySet();
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch allStarted = new CountDownLatch(3);
+        DictionaryRegistry registry = new DictionaryRegistry(
+                List.of(entry("xx/xx.dic", "xx", "xx-XX"), entry("yy/yy.dic", "yy"), entry("zz/zz.dic", "zz")),
+                entry -> {
+                    loadCount.incrementAndGet();
+                    loadingThreads.add(Thread.currentThread().getName());
+                    allStarted.countDown();
+                    try {
+                        // every load waits for the others, which only finishes if they run concurrently
+                        assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return new HyphenDict();
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            CompletableFuture<HyphenDict> xx = registry.loadAsync("xx-XX", executor);
+            CompletableFuture<Void> all = registry.loadAllAsync(executor);
+            HyphenDict yy = registry.get("yy");
+
+            all.get(5, TimeUnit.SECONDS);
+            assertSame(xx.get(), registry.getIfLoaded("xx"));
+            assertSame(yy, registry.getIfLoaded("yy"));
+            assertNotNull(registry.getIfLoaded("zz"));
+            assertNull(registry.loadAsync("unknown", executor).get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(3, loadCount.get());
+        assertEquals(3, loadingThreads.size());
+    }
+
+    @Test
+    public void testFailedLoadIsNotAvailable() {
+        AtomicInteger loadCount = new AtomicInteger();
+        DictionaryRegistry registry = new DictionaryRegistry(List.of(entry("xx/xx.dic", "xx")), entry -> {
+            loadCount.incrementAndGet();
+            throw new IOException("Resource not found");
+        });
+
+        assertTrue(registry.contains("xx"));
+        assertNull(registry.get("xx"));
+        assertNull(registry.get("xx"));
+        assertEquals(1, loadCount.get());
+        assertTrue(registry.loadedDictionaries().isEmpty());
+    }
+
+    @Test
+    public void testErrorInLoadCompletesTheLoad() throws Exception {
+        DictionaryRegistry registry = new DictionaryRegistry(List.of(entry("xx/xx.dic", "xx")), entry -> {
+            throw new NoClassDefFoundError("io/sevcik/Missing");
+        });
+
+        // rethrown to the loading thread, and signalled to everyone waiting for the load
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertNull(registry.loadAsync("xx", executor).get(5, TimeUnit.SECONDS));
+            assertTrue(registry.loadAllAsync(executor).isDone());
+        } finally {
+            executor.shutdown();
+        }
+        assertNull(registry.get("xx"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        AtomicInteger loadCount = new AtomicInteger();
+        DictionaryRegistry registry = new DictionaryRegistry(
+                List.of(entry("xx/xx.dic", "xx"), entry("yy/yy.dic", "yy"), entry("zz/zz.dic", "zz")),
+                entry -> {
+                    loadCount.incrementAndGet();
+                    return new HyphenDict();
+                });
+        registry.setResidentLimit(2, 0);
+
+        HyphenDict xx = registry.get("xx");
+        registry.get("yy");
+        assertSame(xx, registry.get("xx"));
+        registry.get("zz");
+
+        // yy was used least recently
+        assertNull(registry.getIfLoaded("yy"));
+        assertSame(xx, registry.getIfLoaded("xx"));
+        assertNotNull(registry.getIfLoaded("zz"));
+
+        HyphenDict yy = registry.get("yy");
+        assertNotNull(yy);
+        assertNull(registry.getIfLoaded("xx"));
+        assertEquals(4, loadCount.get());
+
+        ResidentDictionaryStats stats = registry.stats();
+        assertEquals(4, stats.loads());
+        assertEquals(1, stats.reloads());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.residentDictionaries());
+
+        registry.setResidentLimit(1, 0);
+        assertEquals(1, registry.stats().residentDictionaries());
+        assertSame(yy, registry.getIfLoaded("yy"));
+        assertThrows(IllegalArgumentException.class, () -> registry.setResidentLimit(-1, 0));
+    }
+
+    @Test
+    public void testReplacePublishesNewVersion() {
+        AtomicInteger loadCount = new AtomicInteger();
+        DictionaryRegistry registry = new DictionaryRegistry(
+                List.of(entry("xx/xx.dic", "xx", "xx-XX"), entry("yy/yy.dic", "yy")),
+                entry -> {
+                    loadCount.incrementAndGet();
+                    return new HyphenDict();
+                });
+
+        HyphenDict old = registry.get("xx");
+        HyphenDict patched = new HyphenDict();
+        assertTrue(registry.replace("xx-XX", patched));
+        assertSame(patched, registry.get("xx"));
+        assertSame(patched, registry.getIfLoaded("xx-XX"));
+        assertNotSame(old, patched);
+
+        // a dictionary replaced before its first use is never loaded
+        HyphenDict yy = new HyphenDict();
+        assertTrue(registry.replace("yy", yy));
+        assertSame(yy, registry.get("yy"));
+        assertEquals(1, loadCount.get());
+        assertFalse(registry.replace("zz", new HyphenDict()));
+        assertEquals(2, registry.entries().size());
+    }
+}
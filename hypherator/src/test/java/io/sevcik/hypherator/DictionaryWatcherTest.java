@@ -0,0 +1,38 @@
+package io.sevcik.hypherator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DictionaryWatcherTest {
+
+    @Test
+    public void testReportsTheFileThatChanged(@TempDir Path directory) throws IOException, InterruptedException {
+        Path subdirectory = Files.createDirectories(directory.resolve("xx"));
+        Files.writeString(subdirectory.resolve("hyph_xx.dic"), "UTF-8\na1b\n");
+
+        BlockingQueue<Map.Entry<String, Path>> reloads = new LinkedBlockingQueue<>();
+        try (DictionaryWatcher watcher = new DictionaryWatcher(directory, (location, file) -> reloads.add(Map.entry(location, file)))) {
+            // a new image next to an unchanged .dic is what gets reloaded
+            Files.write(subdirectory.resolve("hyph_xx" + DictionaryImage.FILE_EXTENSION), new byte[]{1});
+            Map.Entry<String, Path> reload = reloads.poll(10, TimeUnit.SECONDS);
+            assertNotNull(reload);
+            assertEquals("xx/hyph_xx.dic", reload.getKey());
+            assertEquals("hyph_xx" + DictionaryImage.FILE_EXTENSION, reload.getValue().getFileName().toString());
+
+            Files.writeString(subdirectory.resolve("hyph_xx.dic"), "UTF-8\na1c\n");
+            reload = reloads.poll(10, TimeUnit.SECONDS);
+            assertNotNull(reload);
+            assertEquals("hyph_xx.dic", reload.getValue().getFileName().toString());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.sevcik.hypherator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentBreaksTest {
+
+    private static String document(List<String> words, int count) {
+        Random random = new Random(42);
+        String[] separators = {" ", "  ", ", ", ".\n\n", " - ", "\t"};
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(words.get(random.nextInt(words.size()))).append(separators[random.nextInt(separators.length)]);
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void testParallelMatchesSequential() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        String text = document(List.of("aberrations", "Abhorrer", "aarhus", "abbreviation", "x", "1234", "abbreviation-aberrations"), 5000);
+
+        TextHyphenator sequential = new TextHyphenator(dict);
+        sequential.setUrgency(BreakSet.MAX_URGENCY);
+        sequential.setText(text);
+        List<Integer> expected = new ArrayList<>();
+        for (long offset = sequential.next(); offset != TextHyphenator.DONE; offset = sequential.next()) {
+            expected.add((int) offset);
+        }
+        assertFalse(expected.isEmpty());
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkSize : new int[]{1, 100, 4096, Integer.MAX_VALUE}) {
+                DocumentBreaks breaks = dict.getHyphenator().hyphenateDocument(text, BreakSet.MAX_URGENCY, pool, chunkSize);
+                List<Integer> actual = new ArrayList<>();
+                for (int offset : breaks.offsets()) {
+                    actual.add(offset);
+                }
+                assertEquals(expected, actual, "Chunk size " + chunkSize);
+                for (int i = 0; i < breaks.size(); i++) {
+                    assertTrue(breaks.wordStart(i) < breaks.offset(i) && breaks.offset(i) < breaks.wordEnd(i));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class, () -> dict.getHyphenator().hyphenateDocument(text, BreakSet.MAX_URGENCY, ForkJoinPool.commonPool(), 0));
+        assertEquals(0, dict.getHyphenator().hyphenateDocument("", 9).size());
+    }
+
+    @Test
+    public void testReplacementBreaks() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        Hyphenator hyphenator = dict.getHyphenator();
+        String text = document(List.of("schiffahrt", "Die"), 200);
+        DocumentBreaks breaks = hyphenator.hyphenateDocument(text, BreakSet.MAX_URGENCY, ForkJoinPool.commonPool(), 64);
+
+        int replacements = 0;
+        for (int i = 0; i < breaks.size(); i++) {
+            if (breaks.hasReplacement(i)) {
+                StringBuilder left = new StringBuilder();
+                StringBuilder right = new StringBuilder();
+                hyphenator.applyBreak(text, breaks.wordStart(i), breaks.wordEnd(i), breaks.potentialBreak(i), left, right);
+                assertEquals("schiff", left.toString());
+                assertEquals("fahrt", right.toString());
+                replacements++;
+            }
+        }
+        assertTrue(replacements > 0);
+    }
+}
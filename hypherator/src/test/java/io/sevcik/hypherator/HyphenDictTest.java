@@ -0,0 +1,71 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyphenDictTest {
+
+    @Test
+    public void testFreezeReleasesBuildStructures() {
+        HyphenDict dict = new HyphenDict();
+        for (String rule : List.of("a1b", "b1c", "ab1cd", "1ba", "c1d", "2bc")) {
+            HyphenDictBuilder.addNormalRule(dict, rule);
+        }
+        dict.insertNoHyphen("bcd");
+
+        Hyphenate hyphenate = new HyphenateImpl();
+        List<PotentialBreak> before = hyphenate.hyphenate(dict, "abcdabcd");
+        long retainedBefore = dict.retainedBytes();
+
+        dict.freeze();
+        assertTrue(dict.isFrozen());
+        assertTrue(dict.retainedBytes() < retainedBefore, "Freezing should release the build-time structures");
+        assertEquals(before, hyphenate.hyphenate(dict, "abcdabcd"));
+
+        assertThrows(IllegalStateException.class, () -> HyphenDictBuilder.addNormalRule(dict, "d1e"));
+        assertThrows(IllegalStateException.class, () -> dict.insertNoHyphen("e"));
+        assertThrows(UnsupportedOperationException.class, () -> dict.noHyphens.add("e"));
+        dict.freeze();
+    }
+
+    @Test
+    public void testLoadedDictionariesAreFrozen() throws IOException {
+        try (InputStream dictStream = getClass().getResourceAsStream("/data/compound.dic")) {
+            HyphenDict dict = HyphenDictBuilder.fromInputStream(dictStream);
+            for (HyphenDict level = dict; level != null; level = level.nextLevel) {
+                assertTrue(level.isFrozen());
+            }
+            assertTrue(dict.retainedBytes() >= dict.footprint());
+        }
+    }
+
+    @Test
+    public void testOffHeapStorageMatchesHeap() throws IOException {
+        Hyphenate hyphenate = new HyphenateImpl();
+        for (String name : List.of("base", "alt", "compound", "compound3")) {
+            HyphenDict heap;
+            HyphenDict offHeap;
+            try (InputStream dictStream = getClass().getResourceAsStream("/data/" + name + ".dic")) {
+                heap = HyphenDictBuilder.fromInputStream(dictStream);
+            }
+            try (InputStream dictStream = getClass().getResourceAsStream("/data/" + name + ".dic")) {
+                offHeap = HyphenDictBuilder.fromInputStream(dictStream);
+            }
+            offHeap.moveOffHeap();
+            offHeap.moveOffHeap();
+
+            assertEquals(0, heap.offHeapBytes());
+            assertTrue(offHeap.offHeapBytes() > 0);
+            assertTrue(offHeap.footprint() < heap.footprint() + heap.offHeapBytes());
+            for (String word : List.of("aberrations", "schiffahrt", "motorcycle", "abbreviation", "x")) {
+                assertEquals(hyphenate.hyphenate(heap, word), hyphenate.hyphenate(offHeap, word), "Breaks differ for " + word);
+            }
+        }
+    }
+}
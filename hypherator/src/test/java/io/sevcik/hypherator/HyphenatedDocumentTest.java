@@ -0,0 +1,72 @@
+package io.sevcik.hypherator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyphenatedDocumentTest {
+
+    private static void assertSameBreaks(DocumentBreaks expected, HyphenatedDocument actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.offset(i), actual.offset(i), message);
+            assertEquals(expected.priorities()[i], actual.priority(i), message);
+            assertEquals(expected.wordStart(i), actual.wordStart(i), message);
+            assertEquals(expected.wordEnd(i), actual.wordEnd(i), message);
+            assertEquals(expected.hasReplacement(i), actual.hasReplacement(i), message);
+        }
+    }
+
+    @Test
+    public void testEditsMatchFullHyphenation() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        List<String> words = List.of("aberrations", "abhorrer", "aarhus", "abbreviation", "x", "1234", "don't");
+        List<String> insertions = List.of("", "a", "ab", " ", "tions ", "abbrevia", "\n\n", "x-y");
+        Random random = new Random(3);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            text.append(words.get(random.nextInt(words.size()))).append(random.nextInt(5) == 0 ? ". " : " ");
+        }
+
+        HyphenatedDocument document = dict.getHyphenator().newDocument(text, BreakSet.MAX_URGENCY);
+        assertSameBreaks(DocumentBreaks.compute(dict, text, BreakSet.MAX_URGENCY), document, "initial");
+        for (int edit = 0; edit < 1000; edit++) {
+            // mostly local edits, as typed by a user, with occasional jumps
+            int offset = edit % 50 == 0 ? random.nextInt(text.length() + 1)
+                    : Math.max(0, Math.min(text.length(), document.length() / 2 + random.nextInt(200) - 100));
+            int removed = random.nextInt(Math.min(4, text.length() - offset) + 1);
+            String inserted = insertions.get(random.nextInt(insertions.size()));
+            text.replace(offset, offset + removed, inserted);
+            document.edit(offset, removed, inserted);
+
+            assertEquals(text.toString(), document.text().toString());
+            assertSameBreaks(DocumentBreaks.compute(dict, text, BreakSet.MAX_URGENCY), document, "Edit " + edit + " at " + offset);
+        }
+        assertArrayEquals(DocumentBreaks.compute(dict, text, BreakSet.MAX_URGENCY).offsets(), document.snapshot().offsets());
+        assertThrows(IndexOutOfBoundsException.class, () -> document.edit(document.length(), 1, ""));
+    }
+
+    @Test
+    public void testReplacementBreaks() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        HyphenatedDocument document = dict.getHyphenator().newDocument("Die Fahrt", BreakSet.MAX_URGENCY);
+        assertEquals(0, document.size());
+
+        document.replace(4, 9, "schiffahrt");
+        assertEquals("Die schiffahrt", document.text().toString());
+        int index = document.breakIndex(4);
+        assertTrue(document.hasReplacement(index));
+        assertEquals(4, document.wordStart(index));
+        assertEquals(14, document.wordEnd(index));
+
+        StringBuilder left = new StringBuilder();
+        StringBuilder right = new StringBuilder();
+        dict.getHyphenator().applyBreak(document.text(), document.wordStart(index), document.wordEnd(index), document.potentialBreak(index), left, right);
+        assertEquals("schiff", left.toString());
+        assertEquals("fahrt", right.toString());
+    }
+}
@@ -0,0 +1,51 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyphenationBatchTest {
+
+    @Test
+    public void testBatchMatchesSingleWords() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenate hyphenate = new HyphenateImpl();
+        List<CharSequence> words = List.of("aberrations", "x", new StringBuilder("abhorrer"), "aberrations", "", "abbreviation", "abhorrer");
+
+        HyphenationBatch batch = HyphenationBatch.of(dict, words);
+        assertEquals(words.size(), batch.wordCount());
+        assertEquals(words.size() + 1, batch.offsets().length);
+        assertEquals(batch.breakCount(), batch.offsets()[words.size()]);
+
+        for (int w = 0; w < words.size(); w++) {
+            List<PotentialBreak> expected = hyphenate.hyphenate(dict, words.get(w).toString());
+            int start = batch.offsets()[w];
+            assertEquals(expected.size(), batch.offsets()[w + 1] - start, "Break count differs for " + words.get(w));
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), batch.potentialBreak(start + i));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.potentialBreak(batch.breakCount()));
+    }
+
+    @Test
+    public void testBatchKeepsReplacementRules() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        HyphenationBatch batch = HyphenationBatch.of(dict, List.of("schiffahrt", "schiffahrt"));
+        assertEquals(2, batch.wordCount());
+
+        int second = batch.offsets()[1];
+        assertTrue(batch.offsets()[2] > second);
+        assertTrue(batch.hasReplacement(second));
+
+        HyphenationIterator iterator = new HyphenationIteratorImpl(dict);
+        iterator.setWord("schiffahrt");
+        var parts = iterator.applyBreak(batch.potentialBreak(second));
+        assertEquals("schiff", parts.getFirst());
+        assertEquals("fahrt", parts.getSecond());
+    }
+}
@@ -0,0 +1,105 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyphenationLexiconTest {
+
+    @Test
+    public void testLexiconMatchesPatternEngine() throws IOException {
+        List<String> words = List.of("aberrations", "abhorrer", "aarhus", "abbreviation", "a");
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenate hyphenate = new HyphenateImpl();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HyphenationLexicon.build(dict, words).writeTo(out);
+        HyphenationLexicon lexicon = HyphenationLexicon.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(words.size(), lexicon.size());
+
+        BreakSet fromLexicon = new BreakSet();
+        for (String word : words) {
+            List<PotentialBreak> expected = hyphenate.hyphenate(dict, word);
+            fromLexicon.clear();
+            assertTrue(lexicon.lookup(word, fromLexicon), "Missing in lexicon: " + word);
+            assertEquals(expected.size(), fromLexicon.size(), "Break count differs for " + word);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(((PotentialBreakImpl) expected.get(i)).position(), fromLexicon.position(i));
+                assertEquals(((PotentialBreakImpl) expected.get(i)).priority(), fromLexicon.priority(i));
+            }
+        }
+        assertFalse(lexicon.lookup("aberration", fromLexicon));
+        assertFalse(lexicon.lookup("Aberrations", fromLexicon));
+
+        dict.setLexicon(lexicon);
+        assertEquals(2, hyphenate.hyphenate(dict, "aberrations").size());
+        assertEquals(4, ((PotentialBreakImpl) hyphenate.hyphenate(dict, "aberrations").get(0)).position());
+    }
+
+    @Test
+    public void testLongWordKeepsPositions() throws IOException {
+        // positions of 2048 and more use the sign bit of the packed short
+        String word = "aberrations".repeat(350);
+        HyphenDict dict = TestDictionaries.load("base");
+        List<PotentialBreak> expected = new HyphenateImpl().hyphenate(dict, word);
+        assertTrue(((PotentialBreakImpl) expected.get(expected.size() - 1)).position() > 2048);
+
+        BreakSet fromLexicon = new BreakSet();
+        assertTrue(HyphenationLexicon.build(dict, List.of(word)).lookup(word, fromLexicon));
+        assertEquals(expected.size(), fromLexicon.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(((PotentialBreakImpl) expected.get(i)).position(), fromLexicon.position(i));
+        }
+    }
+
+    private static List<Integer> positions(HyphenDict dict, String word) {
+        return dict.getHyphenator().hyphenate(word).stream().map(b -> ((PotentialBreakImpl) b).position()).toList();
+    }
+
+    @Test
+    public void testLexiconOfOtherPatternsIsIgnoredOnReload(@TempDir Path directory) throws IOException {
+        String patterns;
+        try (InputStream dictStream = getClass().getResourceAsStream("/data/base.dic")) {
+            patterns = new String(dictStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        Path file = directory.resolve("hyph_xx.dic");
+        Files.writeString(file, patterns);
+        try (OutputStream out = Files.newOutputStream(directory.resolve("hyph_xx" + HyphenationLexicon.FILE_EXTENSION))) {
+            HyphenationLexicon.build(TestDictionaries.load("base"), List.of("aberrations")).writeTo(out);
+        }
+        HyphenDict dict = Hypherator.readDictionaryFile(file);
+        assertNotNull(dict.getLexicon());
+        assertEquals(List.of(4, 6), positions(dict, "aberrations"));
+
+        // the patch suppresses the break after "aber"; the old lexicon must not bring it back
+        Files.writeString(file, patterns + "\nr8r\n");
+        dict = Hypherator.readDictionaryFile(file);
+        assertNull(dict.getLexicon());
+        assertEquals(List.of(6), positions(dict, "aberrations"));
+
+        Files.writeString(directory.resolve("hyph_xx" + HyphenationLexicon.WORD_LIST_EXTENSION), "aberrations\n");
+        dict = Hypherator.readDictionaryFile(file);
+        assertEquals(1, dict.getLexicon().size());
+        assertEquals(List.of(6), positions(dict, "aberrations"));
+    }
+
+    @Test
+    public void testReplacementBreaksStayInPatternEngine() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        HyphenationLexicon lexicon = HyphenationLexicon.build(dict, List.of("schiffahrt"));
+        assertEquals(0, lexicon.size());
+        assertFalse(lexicon.lookup("schiffahrt", new BreakSet()));
+    }
+}
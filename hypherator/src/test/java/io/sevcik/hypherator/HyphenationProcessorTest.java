@@ -0,0 +1,148 @@
+package io.sevcik.hypherator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyphenationProcessorTest {
+    private static final List<String> WORDS = List.of("aberrations", "abhorrer", "aarhus", "abbreviation", "x", "aberrations abhorrer");
+
+    /**
+     * Emits {@code count} words on request and records how many were requested.
+     */
+    private static final class WordPublisher implements Flow.Publisher<CharSequence> {
+        final int count;
+        final AtomicLong requested = new AtomicLong();
+        int emitted = 0;
+
+        WordPublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super CharSequence> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                boolean emitting = false;
+
+                @Override
+                public synchronized void request(long n) {
+                    requested.addAndGet(n);
+                    if (emitting)
+                        return;
+                    emitting = true;
+                    while (emitted < Math.min(count, requested.get())) {
+                        subscriber.onNext(WORDS.get(emitted % WORDS.size()));
+                        emitted++;
+                    }
+                    if (emitted == count)
+                        subscriber.onComplete();
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+        }
+    }
+
+    /**
+     * Requests one item at a time, only when the test asks for it.
+     */
+    private static final class SlowSubscriber implements Flow.Subscriber<HyphenatedText> {
+        final List<HyphenatedText> received = new ArrayList<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public synchronized void onNext(HyphenatedText item) {
+            received.add(item);
+            notifyAll();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        synchronized void awaitReceived(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (received.size() < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+            assertEquals(count, received.size());
+        }
+    }
+
+    @Test
+    public void testOrderedResultsWithBoundedDemand() throws Exception {
+        HyphenDict dict = TestDictionaries.load("base");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            HyphenationProcessor processor = new HyphenationProcessor(() -> dict, BreakSet.MAX_URGENCY, executor, 4, 3);
+            WordPublisher publisher = new WordPublisher(100);
+            SlowSubscriber subscriber = new SlowSubscriber();
+            processor.subscribe(subscriber);
+            publisher.subscribe(processor);
+
+            for (int delivered = 0; delivered < 100; delivered++) {
+                // never more than the window of batchSize * maxConcurrency ahead of the subscriber
+                assertTrue(publisher.requested.get() <= delivered + 12, "Requested " + publisher.requested.get() + " after " + delivered);
+                subscriber.subscription.request(1);
+                subscriber.awaitReceived(delivered + 1);
+            }
+            subscriber.done.get(5, TimeUnit.SECONDS);
+
+            for (int i = 0; i < 100; i++) {
+                HyphenatedText result = subscriber.received.get(i);
+                assertEquals(WORDS.get(i % WORDS.size()), result.text());
+                assertArrayEquals(DocumentBreaks.compute(dict, result.text(), BreakSet.MAX_URGENCY).offsets(), result.breaks().offsets());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsSignalled() throws Exception {
+        HyphenationProcessor processor = new HyphenationProcessor(() -> null, BreakSet.MAX_URGENCY, Runnable::run, 2, 1);
+        SlowSubscriber subscriber = new SlowSubscriber();
+        processor.subscribe(subscriber);
+        new WordPublisher(5).subscribe(processor);
+        subscriber.subscription.request(10);
+
+        var failure = assertThrows(Exception.class, () -> subscriber.done.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+
+        // an Error on the executor must terminate the stream as well
+        HyphenationProcessor failing = new HyphenationProcessor(() -> {
+            throw new LinkageError("Dictionary class missing");
+        }, BreakSet.MAX_URGENCY, Runnable::run, 2, 1);
+        SlowSubscriber failingSubscriber = new SlowSubscriber();
+        failing.subscribe(failingSubscriber);
+        new WordPublisher(5).subscribe(failing);
+        failingSubscriber.subscription.request(10);
+        failure = assertThrows(Exception.class, () -> failingSubscriber.done.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LinkageError.class, failure.getCause());
+        assertThrows(IllegalArgumentException.class, () -> new HyphenationProcessor(() -> null, 9, Runnable::run, 0, 1));
+    }
+}
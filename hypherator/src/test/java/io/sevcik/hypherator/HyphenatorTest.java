@@ -0,0 +1,70 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HyphenatorTest {
+    private static final List<String> WORDS = List.of("aberrations", "abhorrer", "aarhus", "abbreviation", "motorcycle", "x");
+
+    private static List<PotentialBreak> iterate(HyphenationIterator iterator, String word, int urgency) {
+        iterator.setUrgency(urgency);
+        iterator.setWord(word);
+        List<PotentialBreak> breaks = new ArrayList<>();
+        for (PotentialBreak pb = iterator.first(); pb != HyphenationIterator.DONE; pb = iterator.next()) {
+            breaks.add(pb);
+        }
+        return breaks;
+    }
+
+    @Test
+    public void testMatchesIterator() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenator hyphenator = dict.getHyphenator();
+        assertSame(hyphenator, dict.getHyphenator());
+
+        HyphenationIterator iterator = hyphenator.iterator();
+        for (String word : WORDS) {
+            for (int urgency = 0; urgency <= BreakSet.MAX_URGENCY; urgency++) {
+                List<PotentialBreak> breaks = hyphenator.hyphenate(word, urgency);
+                assertEquals(iterate(iterator, word, urgency), breaks, word + " at urgency " + urgency);
+                assertThrows(UnsupportedOperationException.class, breaks::clear);
+            }
+        }
+    }
+
+    @Test
+    public void testSharedBetweenThreads() throws Exception {
+        HyphenDict dict = TestDictionaries.load("compound");
+        dict.setWordCacheSize(4);
+        Hyphenator hyphenator = dict.getHyphenator();
+        List<List<PotentialBreak>> expected = WORDS.stream().map(word -> iterate(new HyphenationIteratorImpl(dict), word, BreakSet.MAX_URGENCY)).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    for (int round = 0; round < 500; round++) {
+                        int i = round % WORDS.size();
+                        assertEquals(expected.get(i), hyphenator.hyphenate(WORDS.get(i)));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
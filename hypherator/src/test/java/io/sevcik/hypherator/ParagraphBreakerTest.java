@@ -0,0 +1,104 @@
+package io.sevcik.hypherator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParagraphBreakerTest {
+    private static final ParagraphBreaker.TextMeasure MONOSPACE = (text, start, end) -> end - start;
+
+    private static String lines(ParagraphBreaker breaker) {
+        StringBuilder result = new StringBuilder();
+        for (int line = 0; line < breaker.lineCount(); line++) {
+            breaker.appendLine(line, result);
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    @Test
+    public void testLinesFitAndKeepTheText() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        List<String> words = List.of("aberrations", "abhorrer", "aarhus", "abbreviation", "x", "abbreviations,");
+        Random random = new Random(7);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 80; i++) {
+            text.append(words.get(random.nextInt(words.size()))).append(i % 9 == 8 ? "  " : " ");
+        }
+
+        ParagraphBreaker breaker = dict.getHyphenator().newParagraphBreaker(MONOSPACE);
+        breaker.setText(text);
+        int count = breaker.layout(30);
+        assertEquals(count, breaker.lineCount());
+
+        StringBuilder joined = new StringBuilder();
+        boolean hyphenated = false;
+        for (int line = 0; line < count; line++) {
+            StringBuilder rendered = new StringBuilder();
+            breaker.appendLine(line, rendered);
+            // spaces may shrink by a third
+            long spaces = rendered.chars().filter(c -> c == ' ').count();
+            assertTrue(rendered.length() <= 30 + spaces / 3.0, rendered.toString());
+            assertTrue(breaker.adjustmentRatio(line) >= -1);
+            assertTrue(line == 0 || breaker.lineStart(line) >= breaker.lineEnd(line - 1));
+            if (breaker.isHyphenated(line)) {
+                hyphenated = true;
+                joined.append(rendered, 0, rendered.length() - breaker.getHyphen().length());
+            } else {
+                joined.append(rendered).append(' ');
+            }
+        }
+        assertTrue(hyphenated);
+        assertEquals(text.toString().replaceAll("\\s+", " "), joined.toString().replaceAll("\\s+", " "));
+        assertTrue(Double.isFinite(breaker.adjustmentRatio(count - 1)));
+        assertThrows(IndexOutOfBoundsException.class, () -> breaker.lineStart(count));
+    }
+
+    @Test
+    public void testIncrementalLayoutMatchesFullLayout() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        List<String> words = List.of("aberrations", "abhorrer", "aarhus", "abbreviation", "x", "a");
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            text.append(words.get(random.nextInt(words.size()))).append(' ');
+        }
+
+        ParagraphBreaker incremental = dict.getHyphenator().newParagraphBreaker(MONOSPACE);
+        incremental.setText(text);
+        incremental.layout(24);
+        for (int edit = 0; edit < 500; edit++) {
+            int offset = random.nextInt(text.length() + 1);
+            if (random.nextBoolean() && offset < text.length()) {
+                text.deleteCharAt(offset);
+            } else {
+                text.insert(offset, "abhor ".charAt(random.nextInt(6)));
+            }
+            incremental.textChanged(text, offset);
+            incremental.layout(24);
+
+            ParagraphBreaker full = dict.getHyphenator().newParagraphBreaker(MONOSPACE);
+            full.setText(text);
+            full.layout(24);
+            assertEquals(lines(full), lines(incremental), "Edit " + edit + " at " + offset);
+        }
+    }
+
+    @Test
+    public void testReplacementBreaksAndOverfullWords() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        ParagraphBreaker breaker = dict.getHyphenator().newParagraphBreaker(MONOSPACE);
+        breaker.setText("Die schiffahrt Die");
+        breaker.layout(8);
+        assertEquals("Die\nschiff-\nfahrt\nDie\n", lines(breaker));
+
+        breaker.setUrgency(0);
+        breaker.layout(8);
+        assertEquals("Die\nschiffahrt\nDie\n", lines(breaker));
+        assertThrows(IllegalStateException.class, () -> dict.getHyphenator().newParagraphBreaker(MONOSPACE).layout(8));
+    }
+}
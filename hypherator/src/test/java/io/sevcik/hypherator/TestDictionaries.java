@@ -0,0 +1,24 @@
+package io.sevcik.hypherator;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Loads the dictionaries of the test resources.
+ */
+final class TestDictionaries {
+    private TestDictionaries() {
+    }
+
+    /**
+     * Loads a dictionary by name, e.g. {@code "base"} for {@code /data/base.dic}.
+     */
+    static HyphenDict load(String name) throws IOException {
+        try (InputStream dictStream = TestDictionaries.class.getResourceAsStream("/data/" + name + ".dic")) {
+            assertNotNull(dictStream, "Dictionary not found: " + name);
+            return HyphenDictBuilder.fromInputStream(dictStream);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.sevcik.hypherator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextHyphenatorTest {
+
+    private static List<Long> collect(TextHyphenator hyphenator) {
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = hyphenator.next(); offset != TextHyphenator.DONE; offset = hyphenator.next()) {
+            offsets.add(offset);
+        }
+        return offsets;
+    }
+
+    private static List<Long> expected(HyphenDict dict, String text, String... words) {
+        BreakSet breaks = new BreakSet();
+        List<Long> offsets = new ArrayList<>();
+        int from = 0;
+        for (String word : words) {
+            int start = text.indexOf(word, from);
+            new HyphenateImpl().hyphenate(dict, word, breaks);
+            for (int i = 0; i < breaks.size(); i++) {
+                offsets.add((long) start + breaks.position(i));
+            }
+            from = start + word.length();
+        }
+        return offsets;
+    }
+
+    @Test
+    public void testOffsetsIntoOriginalText() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        String text = "  Aberrations, (abhorrer) 1234 aberrations-abhorrer; 42abbreviation - 'abhorrer'.";
+        List<Long> expected = expected(dict, text, "Aberrations", "abhorrer", "aberrations-abhorrer", "42abbreviation", "abhorrer");
+        assertFalse(expected.isEmpty());
+
+        TextHyphenator hyphenator = new TextHyphenator(dict);
+        hyphenator.setText(text);
+        assertEquals(expected, collect(hyphenator));
+
+        // a small buffer forces words across refills
+        TextHyphenator streaming = new TextHyphenator(dict, 24);
+        streaming.setText(new StringReader(text));
+        assertEquals(expected, collect(streaming));
+    }
+
+    @Test
+    public void testBreakDetails() throws IOException {
+        HyphenDict dict = TestDictionaries.load("alt");
+        TextHyphenator hyphenator = new TextHyphenator(dict, 12);
+        hyphenator.setText(new StringReader("... schiffahrt."));
+
+        long offset = hyphenator.next();
+        assertEquals(4, hyphenator.wordOffset());
+        assertEquals("schiffahrt", hyphenator.word().toString());
+        assertEquals(4 + 5, offset);
+        assertTrue(hyphenator.hasReplacement());
+
+        HyphenationIterator iterator = new HyphenationIteratorImpl(dict);
+        iterator.setWord(hyphenator.word().toString());
+        var parts = iterator.applyBreak(hyphenator.potentialBreak());
+        assertEquals("schiff", parts.getFirst());
+        assertEquals("fahrt", parts.getSecond());
+    }
+
+    @Test
+    public void testSkipsWordsLongerThanBuffer() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        String text = "aberrationsaberrationsaberrations abhorrer";
+        TextHyphenator hyphenator = new TextHyphenator(dict, 16);
+        hyphenator.setText(new StringReader(text));
+        assertEquals(expected(dict, text, "abhorrer"), collect(hyphenator));
+        assertEquals(TextHyphenator.DONE, hyphenator.next());
+    }
+}
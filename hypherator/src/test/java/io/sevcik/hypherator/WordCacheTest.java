@@ -0,0 +1,79 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordCacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordCacheTest {
+
+    @Test
+    public void testCachedResultsMatchUncached() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenate hyphenate = new HyphenateImpl();
+        List<String> words = List.of("aberrations", "abhorrer", "aarhus", "abbreviation");
+        List<List<PotentialBreak>> expected = words.stream().map(word -> hyphenate.hyphenate(dict, word)).toList();
+
+        dict.setWordCacheSize(16);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < words.size(); i++) {
+                assertEquals(expected.get(i), hyphenate.hyphenate(dict, words.get(i)));
+            }
+        }
+
+        BreakSet breakSet = new BreakSet();
+        hyphenate.hyphenate(dict, new StringBuilder("aberrations"), breakSet);
+        assertEquals(expected.get(0).size(), breakSet.size());
+
+        WordCacheStats stats = dict.getWordCache().stats();
+        assertEquals(words.size(), stats.misses());
+        assertEquals(2 * words.size() + 1, stats.localHits() + stats.sharedHits());
+        assertEquals(words.size(), stats.size());
+        assertThrows(UnsupportedOperationException.class, () -> hyphenate.hyphenate(dict, "aberrations").clear());
+    }
+
+    @Test
+    public void testSharedTierIsProbedWithoutStrings() throws Exception {
+        WordCache cache = new WordCache(16);
+        List<PotentialBreak> breaks = List.of();
+        cache.put("aberrations", breaks);
+
+        // another thread has an empty L1, so the lookup goes to the shared tier
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                char[] buffer = "xaberrationsx".toCharArray();
+                assertSame(breaks, cache.get(CharBuffer.wrap(buffer, 1, 11)));
+                assertSame(breaks, cache.get(new StringBuilder("aberrations")));
+                assertNull(cache.get(new StringBuilder("aberration")));
+            }).get();
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.stats().sharedHits());
+        assertEquals(1, cache.stats().localHits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    public void testSharedTierIsBounded() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenate hyphenate = new HyphenateImpl();
+        dict.setWordCacheSize(8);
+
+        for (int i = 0; i < 1000; i++) {
+            hyphenate.hyphenate(dict, "word" + i);
+        }
+        WordCacheStats stats = dict.getWordCache().stats();
+        assertTrue(stats.size() <= 8, "Shared tier exceeds its bound: " + stats.size());
+        assertEquals(1000, stats.misses());
+        assertEquals(1000 - 8, stats.evictions() + stats.rejections());
+    }
+}
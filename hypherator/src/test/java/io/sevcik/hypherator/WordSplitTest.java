@@ -0,0 +1,86 @@
+package io.sevcik.hypherator;
+
+import io.sevcik.hypherator.dto.Pair;
+import io.sevcik.hypherator.dto.PotentialBreak;
+import io.sevcik.hypherator.dto.WordSplit;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WordSplitTest {
+
+    /**
+     * Splits the word line by line with {@link HyphenationIterator#getInstanceOnRightPart(PotentialBreak)}.
+     */
+    private static List<String> splitByRightParts(HyphenationIterator iterator, String word, int lineLength) {
+        List<String> fragments = new ArrayList<>();
+        String rest = word;
+        while (rest.length() > lineLength) {
+            PotentialBreak chosen = null;
+            for (PotentialBreak candidate = iterator.first(); candidate != null; candidate = iterator.next()) {
+                boolean fits = iterator.applyBreak(candidate).getFirst().length() + 1 <= lineLength;
+                if (fits || chosen == null)
+                    chosen = candidate;
+                if (!fits)
+                    break;
+            }
+            if (chosen == null)
+                break;
+            Pair<String, String> parts = iterator.applyBreak(chosen);
+            fragments.add(parts.getFirst());
+            rest = parts.getSecond();
+            iterator = iterator.getInstanceOnRightPart(chosen);
+        }
+        fragments.add(rest);
+        return fragments;
+    }
+
+    @Test
+    public void testSplitMatchesChainedRightParts() throws IOException {
+        HyphenDict dict = TestDictionaries.load("base");
+        Hyphenator hyphenator = dict.getHyphenator();
+        for (String word : List.of("aberrations", "abbreviations", "abhorrers", "aarhus", "x")) {
+            for (int lineLength = 1; lineLength <= word.length() + 1; lineLength++) {
+                HyphenationIteratorImpl iterator = new HyphenationIteratorImpl(hyphenator);
+                iterator.setUrgency(BreakSet.MAX_URGENCY);
+                iterator.setWord(word);
+                WordSplit split = iterator.split(lineLength);
+
+                assertEquals(splitByRightParts(iterator, word, lineLength), split.fragments(), word + " in " + lineLength);
+                assertEquals(split.lineCount() - 1, split.breaks().size());
+                assertEquals(word, String.join("", split.fragments()));
+            }
+        }
+    }
+
+    @Test
+    public void testReplacementShiftsLaterBreaks() throws IOException {
+        // the right part "bb" is longer than the "b" it replaces
+        String source = "UTF-8\nLEFTHYPHENMIN 1\nRIGHTHYPHENMIN 1\na1b/a=bb,1,2\n";
+        HyphenDict dict = HyphenDictBuilder.fromInputStream(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+        Hyphenator hyphenator = dict.getHyphenator();
+        String word = "xxabxxxxabxx";
+        List<PotentialBreak> breaks = hyphenator.hyphenate(word);
+        assertEquals(2, breaks.size());
+
+        WordSplit split = hyphenator.split(word, breaks, 8);
+        assertEquals(List.of("xxa", "bbxxxxa", "bbxx"), split.fragments());
+        assertEquals(breaks, split.breaks());
+
+        HyphenationIteratorImpl iterator = new HyphenationIteratorImpl(hyphenator);
+        iterator.setWord(word);
+        iterator.setUrgency(BreakSet.MAX_URGENCY);
+        assertEquals(split.fragments(), splitByRightParts(iterator, word, 8));
+
+        // per-line widths: a wide second line takes the rest of the word
+        WordSplit wide = hyphenator.split(word, breaks, line -> line == 0 ? 4 : 20, (text, start, end) -> end - start);
+        assertEquals(List.of("xxa", "bbxxxxabxx"), wide.fragments());
+        assertThrows(IllegalArgumentException.class, () -> hyphenator.split(word, breaks));
+    }
+}